@@ -0,0 +1,97 @@
+package de.bbq.hangman.benchmark;
+
+import de.bbq.hangman.model.Alphabet;
+import de.bbq.hangman.model.ComputerGuesser;
+import de.bbq.hangman.model.DictionaryIndex;
+import de.bbq.hangman.model.HangmanModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the candidate filtering and letter scoring of {@link ComputerGuesser}.
+ * The first guess of a game is looked up in the opening book and measured on its own, as is the first guess
+ * that leaves the book and scores the largest candidate set. A full game measures every
+ * updatePossibleWords/getNextLetterGuess round until the word is found.
+ * With millions of words the first guesses run on the common fork-join pool, later ones on the few words left.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ComputerGuesserBenchmark {
+
+    @Param({"1000", "100000", "500000", "4000000"})
+    private int dictionarySize;
+
+    @Param({"6", "12"})
+    private int wordLength;
+
+    private String[] words;
+    private ComputerGuesser guesser;
+    private HangmanModel model;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        words = SyntheticDictionary.generate(dictionarySize, wordLength, 42);
+        guesser = new ComputerGuesser(new DictionaryIndex(words));
+        model = new HangmanModel();
+    }
+
+    private String nextWord() {
+        next = (next + 7919) % words.length;
+        return words[next];
+    }
+
+    @Benchmark
+    public char firstGuessFromBook() {
+        guesser.initializeGuesser();
+        model.initializeGame(nextWord());
+        guesser.updatePossibleWords(model.getDisplay(), model.getGuessedLetters());
+        return guesser.getNextLetterGuess();
+    }
+
+    @Benchmark
+    public char firstGuessOffBook() {
+        guesser.initializeGuesser();
+        model.initializeGame(nextWord());
+        guesser.updatePossibleWords(model.getDisplay(), model.getGuessedLetters());
+        // Guessing another letter than the book's leaves the book, so the next guess filters and scores the whole bucket
+        int bookLetter = Alphabet.indexOf(guesser.getNextLetterGuess());
+        model.guessLetter(Alphabet.letterAt((bookLetter + 1) % Alphabet.SIZE));
+        guesser.updatePossibleWords(model.getDisplay(), model.getGuessedLetters());
+        return guesser.getNextLetterGuess();
+    }
+
+    @Benchmark
+    public boolean fullGame() {
+        guesser.initializeGuesser();
+        model.initializeGame(nextWord());
+        guesser.updatePossibleWords(model.getDisplay(), model.getGuessedLetters());
+        while (!model.isGameOver() && !model.isGameWon() && guesser.hasMoreLetters()) {
+            char guess = guesser.getNextLetterGuess();
+            if (model.hasBeenGuessed(guess)) {
+                continue;
+            }
+            model.guessLetter(guess);
+            guesser.updatePossibleWords(model.getDisplay(), model.getGuessedLetters());
+        }
+        return model.isGameWon();
+    }
+}
@@ -0,0 +1,83 @@
+package de.bbq.hangman.benchmark;
+
+import de.bbq.hangman.model.Alphabet;
+import de.bbq.hangman.model.HangmanModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the guess processing of {@link HangmanModel}.
+ * Every operation plays a complete game, so guessLetter and the game state check run
+ * from the first to the last guess.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HangmanModelBenchmark {
+
+    @Param({"5", "10", "20"})
+    private int wordLength;
+
+    private HangmanModel model;
+    private String[] words;
+    private String[] wrongGuesses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        model = new HangmanModel();
+        words = SyntheticDictionary.generate(1024, wordLength, 42);
+        wrongGuesses = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            wrongGuesses[i] = "x" + words[i];
+        }
+    }
+
+    private String nextWord() {
+        next = (next + 1) & (words.length - 1);
+        return words[next];
+    }
+
+    @Benchmark
+    public void guessLetter(Blackhole blackhole) {
+        model.initializeGame(nextWord());
+        for (int letter = 0; letter < Alphabet.SIZE && !model.isGameOver() && !model.isGameWon(); letter++) {
+            blackhole.consume(model.guessLetter(Alphabet.letterAt(letter)));
+        }
+    }
+
+    @Benchmark
+    public void guessWord(Blackhole blackhole) {
+        String word = nextWord();
+        model.initializeGame(word);
+        blackhole.consume(model.guessWord(wrongGuesses[next]));
+        blackhole.consume(model.guessWord(word));
+    }
+
+    @Benchmark
+    public void gameStateAfterGuess(Blackhole blackhole) {
+        model.initializeGame(nextWord());
+        model.guessLetter('e');
+        blackhole.consume(model.getCurrentDisplay());
+        blackhole.consume(model.getGuessedLetters());
+        blackhole.consume(model.isGameWon());
+    }
+}
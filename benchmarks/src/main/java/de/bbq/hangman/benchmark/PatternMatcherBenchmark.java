@@ -0,0 +1,121 @@
+package de.bbq.hangman.benchmark;
+
+import de.bbq.hangman.benchmark.simd.PatternMatcher;
+import de.bbq.hangman.model.Alphabet;
+import de.bbq.hangman.model.CandidateFilter;
+import de.bbq.hangman.model.CandidateSet;
+import de.bbq.hangman.model.DictionaryIndex;
+import de.bbq.hangman.model.LengthBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks matching a whole bucket against a display pattern with excluded letters, as done when the
+ * candidates are rebuilt from scratch. Compares the vectorized {@link PatternMatcher}, its scalar fallback
+ * and the posting set intersections the guesser uses. The fork enables {@code jdk.incubator.vector};
+ * without it the vector benchmark measures the scalar fallback.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class PatternMatcherBenchmark {
+    private static final int PATTERNS = 64;
+
+    @Param({"100000", "1000000", "4000000"})
+    private int dictionarySize;
+
+    @Param({"8"})
+    private int wordLength;
+
+    private LengthBucket bucket;
+    private PatternMatcher vector;
+    private PatternMatcher scalar;
+    private CandidateSet candidates;
+    private long[] matcherCandidates;
+    private String[] patterns;
+    private int[] excluded;
+    private CandidateSet[] keep;
+    private CandidateSet[] remove;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] words = SyntheticDictionary.generate(dictionarySize, wordLength, 42);
+        bucket = new DictionaryIndex(words).bucket(wordLength);
+        vector = PatternMatcher.of(bucket);
+        scalar = PatternMatcher.scalar(bucket);
+        candidates = new CandidateSet(bucket.size());
+        matcherCandidates = vector.newCandidates();
+        keep = new CandidateSet[wordLength];
+        remove = new CandidateSet[wordLength * Alphabet.SIZE];
+
+        // Patterns of dictionary words after one to six guessed letters
+        SplittableRandom random = new SplittableRandom(7);
+        patterns = new String[PATTERNS];
+        excluded = new int[PATTERNS];
+        for (int i = 0; i < PATTERNS; i++) {
+            String word = words[random.nextInt(words.length)];
+            for (int guesses = 0; guesses <= i % 6; guesses++) {
+                excluded[i] |= 1 << random.nextInt(Alphabet.SIZE);
+            }
+            StringBuilder pattern = new StringBuilder(word.substring(0, 1));
+            for (int position = 1; position < word.length(); position++) {
+                char letter = word.charAt(position);
+                pattern.append((excluded[i] & (1 << Alphabet.indexOf(letter))) != 0 ? letter : '_');
+            }
+            patterns[i] = pattern.toString();
+        }
+    }
+
+    @Benchmark
+    public int vector() {
+        int i = next++ % PATTERNS;
+        vector.setAll(matcherCandidates);
+        return vector.retainMatching(patterns[i], excluded[i], matcherCandidates);
+    }
+
+    @Benchmark
+    public int scalar() {
+        int i = next++ % PATTERNS;
+        scalar.setAll(matcherCandidates);
+        return scalar.retainMatching(patterns[i], excluded[i], matcherCandidates);
+    }
+
+    @Benchmark
+    public int postings() {
+        int i = next++ % PATTERNS;
+        String pattern = patterns[i];
+        int keepCount = 0;
+        int removeCount = 0;
+        for (int position = 0; position < pattern.length(); position++) {
+            char patternChar = pattern.charAt(position);
+            if (patternChar != '_') {
+                keep[keepCount++] = bucket.positionPosting(position, Alphabet.indexOf(patternChar));
+                continue;
+            }
+            for (int mask = excluded[i]; mask != 0; mask &= mask - 1) {
+                remove[removeCount++] = bucket.positionPosting(position, Integer.numberOfTrailingZeros(mask));
+            }
+        }
+        candidates.setAll();
+        return CandidateFilter.retain(candidates, candidates.size(), keep, keepCount, remove, removeCount);
+    }
+}
@@ -0,0 +1,41 @@
+package de.bbq.hangman.benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible dictionaries of random words for the benchmarks.
+ * Letters are drawn with a rough German frequency distribution, so candidate sets shrink
+ * the way they do with real dictionaries.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+final class SyntheticDictionary {
+    /** Letters repeated by their approximate frequency in German text */
+    private static final String WEIGHTED_LETTERS =
+            "eeeeeeeeeeeeeeennnnnnnnniiiiiiisssssssrrrrrrraaaaaatttttdddddhhhhhuuuullllcccgggmmmooobbwwffkkzzpvjyxqäöüß";
+
+    private SyntheticDictionary() {
+    }
+
+    /**
+     * Generates lower-case words of a fixed length.
+     *
+     * @param size   The number of words
+     * @param length The length of every word
+     * @param seed   The seed of the generator
+     * @return The generated words, possibly with duplicates
+     */
+    static String[] generate(int size, int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] words = new String[size];
+        char[] word = new char[length];
+        for (int i = 0; i < size; i++) {
+            for (int position = 0; position < length; position++) {
+                word[position] = WEIGHTED_LETTERS.charAt(random.nextInt(WEIGHTED_LETTERS.length()));
+            }
+            words[i] = new String(word);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,90 @@
+package de.bbq.hangman.benchmark;
+
+import de.bbq.hangman.model.ArrayWordList;
+import de.bbq.hangman.model.Difficulty;
+import de.bbq.hangman.model.WordProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks random word selection of {@link WordProvider}, single-threaded and shared by several threads,
+ * uniform and weighted, from a difficulty tier and from a length range.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordProviderBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int dictionarySize;
+
+    private WordProvider wordProvider;
+    private WordProvider weightedProvider;
+
+    @Setup
+    public void setUp() {
+        wordProvider = new WordProvider(new ArrayWordList(SyntheticDictionary.generate(dictionarySize, 8, 42)));
+        // Lengths 5 to 10, so that tiers and length ranges have something to choose from
+        List<String> mixed = new ArrayList<>();
+        for (int length = 5; length <= 10; length++) {
+            mixed.addAll(Arrays.asList(SyntheticDictionary.generate(dictionarySize / 6 + 1, length, 42 + length)));
+        }
+        ArrayWordList words = new ArrayWordList(mixed.toArray(new String[0]));
+        // Zipf-like frequencies, as in real word counts
+        double[] weights = new double[words.size()];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1.0 / (1 + random.nextInt(weights.length));
+        }
+        weightedProvider = new WordProvider(words, weights);
+    }
+
+    @Benchmark
+    public String getRandomWord() {
+        return wordProvider.getRandomWord();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getRandomWordShared() {
+        return wordProvider.getRandomWord();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String getWeightedWordShared() {
+        return weightedProvider.getRandomWord();
+    }
+
+    @Benchmark
+    public String getWeightedWordOfDifficulty() {
+        return weightedProvider.getRandomWord(Difficulty.MEDIUM);
+    }
+
+    @Benchmark
+    public String getWeightedWordOfLength() {
+        return weightedProvider.getRandomWord(5, 7);
+    }
+}
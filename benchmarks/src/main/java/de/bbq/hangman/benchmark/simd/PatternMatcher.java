@@ -0,0 +1,214 @@
+package de.bbq.hangman.benchmark.simd;
+
+import de.bbq.hangman.model.Alphabet;
+import de.bbq.hangman.model.LengthBucket;
+
+import java.util.Arrays;
+
+/**
+ * Matches the words of a length bucket against a display pattern directly on their letters, as an alternative
+ * to intersecting posting sets. The matcher packs the letters of the bucket into one byte code per character,
+ * position by position, and scans them: a revealed position keeps the words with that letter, a hidden
+ * position removes the words with an excluded letter there. Words already ruled out are skipped 64 at a time.
+ * <p>
+ * {@link #of(LengthBucket)} returns a matcher that compares a whole vector of words per instruction with the
+ * incubating Vector API if the JVM was started with {@code --add-modules jdk.incubator.vector}, and a scalar
+ * matcher with the same results otherwise.
+ * <p>
+ * The guesser filters with the posting sets, which are faster, so the matchers are only compared in the
+ * benchmarks. They only use the public word accessors of the bucket and keep the candidates in a plain bitset
+ * of their own, one bit per word of the bucket.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public abstract class PatternMatcher {
+    private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /** The bucket whose words are matched */
+    final LengthBucket bucket;
+
+    /** The distance between two positions in the codes, the number of words rounded up to a multiple of 64 */
+    final int stride;
+
+    /**
+     * The codes of all words, the code of position p of word i at {@code p * stride + i}. A code is the
+     * letter index, or {@link Alphabet#SIZE} for a character outside the alphabet. The padding of each
+     * position lets it be read in full vectors of any width.
+     */
+    final byte[] codes;
+
+    PatternMatcher(LengthBucket bucket) {
+        this.bucket = bucket;
+        this.stride = (bucket.size() + 63) & ~63;
+        this.codes = new byte[bucket.length() * stride];
+        char[] word = new char[bucket.length()];
+        for (int i = 0; i < bucket.size(); i++) {
+            bucket.wordChars(i, word);
+            for (int position = 0; position < word.length; position++) {
+                int letter = Alphabet.indexOf(word[position]);
+                codes[position * stride + i] = (byte) (letter >= 0 ? letter : Alphabet.SIZE);
+            }
+        }
+    }
+
+    /**
+     * Creates the fastest matcher the JVM supports for a bucket.
+     *
+     * @param bucket The bucket whose words are matched
+     * @return A vectorized matcher if the Vector API is available, otherwise a scalar one
+     */
+    public static PatternMatcher of(LengthBucket bucket) {
+        return VECTOR_AVAILABLE ? new VectorPatternMatcher(bucket) : scalar(bucket);
+    }
+
+    /**
+     * Creates the scalar matcher for a bucket, which works on every JVM.
+     *
+     * @param bucket The bucket whose words are matched
+     * @return A matcher that compares one word at a time
+     */
+    public static PatternMatcher scalar(LengthBucket bucket) {
+        return new ScalarPatternMatcher(bucket);
+    }
+
+    /**
+     * Checks if the Vector API module is available, so {@link #of(LengthBucket)} returns a vectorized matcher.
+     *
+     * @return true if the JVM was started with {@code --add-modules jdk.incubator.vector}
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR_AVAILABLE;
+    }
+
+    /**
+     * Creates a candidate bitset holding all words of the bucket.
+     *
+     * @return The bitset, bit i of element i / 64 standing for word i
+     */
+    public final long[] newCandidates() {
+        long[] candidates = new long[stride >>> 6];
+        setAll(candidates);
+        return candidates;
+    }
+
+    /**
+     * Adds all words of the bucket to a candidate bitset.
+     *
+     * @param candidates A bitset created by {@link #newCandidates()}
+     */
+    public final void setAll(long[] candidates) {
+        Arrays.fill(candidates, -1L);
+        int tail = bucket.size() & 63;
+        if (tail != 0) {
+            candidates[candidates.length - 1] = (1L << tail) - 1;
+        }
+    }
+
+    /**
+     * Keeps the candidates that match a display pattern and have no excluded letter at a hidden position.
+     *
+     * @param pattern         The display pattern in lower case, with '_' for hidden positions
+     * @param excludedLetters Mask of the letters that cannot be hidden, usually all guessed letters
+     * @param candidates      A bitset created by {@link #newCandidates()}, updated in place
+     * @return The number of candidates left
+     */
+    public final int retainMatching(CharSequence pattern, int excludedLetters, long[] candidates) {
+        if (pattern.length() != bucket.length()) {
+            Arrays.fill(candidates, 0L);
+            return 0;
+        }
+        boolean otherCharacters = false;
+        for (int position = 0; position < pattern.length(); position++) {
+            char patternChar = pattern.charAt(position);
+            if (patternChar == '_') {
+                if ((excludedLetters & Alphabet.ALL) != 0) {
+                    removeExcluded(position * stride, excludedLetters & Alphabet.ALL, candidates);
+                }
+                continue;
+            }
+            int letter = Alphabet.indexOf(patternChar);
+            if (letter < 0) {
+                // Codes do not tell characters outside the alphabet apart, they are compared on the words below
+                otherCharacters = true;
+                letter = Alphabet.SIZE;
+            }
+            keepCode(position * stride, (byte) letter, candidates);
+        }
+        if (otherCharacters) {
+            retainOtherCharacters(pattern, candidates);
+        }
+        int count = 0;
+        for (long bits : candidates) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    /**
+     * Removes the candidates that differ from the revealed characters outside the alphabet of a pattern.
+     *
+     * @param pattern    The display pattern in lower case
+     * @param candidates The candidate bitset, updated in place
+     */
+    private void retainOtherCharacters(CharSequence pattern, long[] candidates) {
+        char[] word = new char[bucket.length()];
+        for (int block = 0; block < candidates.length; block++) {
+            for (long bits = candidates[block]; bits != 0; bits &= bits - 1) {
+                int i = (block << 6) + Long.numberOfTrailingZeros(bits);
+                bucket.wordChars(i, word);
+                for (int position = 0; position < word.length; position++) {
+                    char patternChar = pattern.charAt(position);
+                    if (patternChar != '_' && Alphabet.indexOf(patternChar) < 0 && word[position] != patternChar) {
+                        candidates[block] &= ~(1L << i);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets a block of up to 64 candidates as bits, the lowest bit standing for the first word.
+     *
+     * @param candidates The candidate bitset
+     * @param fromIndex  The first word of the block, a multiple of the block length
+     * @param count      The block length, a power of two of at most 64
+     * @return The bits of the block
+     */
+    static long bits(long[] candidates, int fromIndex, int count) {
+        long word = candidates[fromIndex >>> 6] >>> fromIndex;
+        return count == Long.SIZE ? word : word & ((1L << count) - 1);
+    }
+
+    /**
+     * Keeps the candidates of a block of up to 64 words whose bit is set in a mask.
+     *
+     * @param candidates The candidate bitset, updated in place
+     * @param fromIndex  The first word of the block, a multiple of the block length
+     * @param keep       The words to keep, the lowest bit standing for the first word
+     * @param count      The block length, a power of two of at most 64
+     */
+    static void retainBits(long[] candidates, int fromIndex, long keep, int count) {
+        long block = count == Long.SIZE ? -1L : ((1L << count) - 1) << fromIndex;
+        candidates[fromIndex >>> 6] &= ~block | (keep << fromIndex);
+    }
+
+    /**
+     * Keeps the candidates with the given code at one position.
+     *
+     * @param offset     The start of the position in the codes
+     * @param code       The code to keep
+     * @param candidates The candidate bitset, updated in place
+     */
+    abstract void keepCode(int offset, byte code, long[] candidates);
+
+    /**
+     * Removes the candidates with an excluded letter at one position.
+     *
+     * @param offset          The start of the position in the codes
+     * @param excludedLetters A non-empty mask of excluded letters
+     * @param candidates      The candidate bitset, updated in place
+     */
+    abstract void removeExcluded(int offset, int excludedLetters, long[] candidates);
+}
@@ -0,0 +1,41 @@
+package de.bbq.hangman.benchmark.simd;
+
+import de.bbq.hangman.model.LengthBucket;
+
+/**
+ * {@link PatternMatcher} that compares the code of one candidate at a time.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+final class ScalarPatternMatcher extends PatternMatcher {
+
+    ScalarPatternMatcher(LengthBucket bucket) {
+        super(bucket);
+    }
+
+    @Override
+    void keepCode(int offset, byte code, long[] candidates) {
+        for (int block = 0; block < candidates.length; block++) {
+            for (long bits = candidates[block]; bits != 0; bits &= bits - 1) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                if (codes[offset + (block << 6) + bit] != code) {
+                    candidates[block] &= ~(1L << bit);
+                }
+            }
+        }
+    }
+
+    @Override
+    void removeExcluded(int offset, int excludedLetters, long[] candidates) {
+        for (int block = 0; block < candidates.length; block++) {
+            for (long bits = candidates[block]; bits != 0; bits &= bits - 1) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                // Codes outside the alphabet shift to a bit of the mask that is never set
+                if ((excludedLetters & (1 << codes[offset + (block << 6) + bit])) != 0) {
+                    candidates[block] &= ~(1L << bit);
+                }
+            }
+        }
+    }
+}
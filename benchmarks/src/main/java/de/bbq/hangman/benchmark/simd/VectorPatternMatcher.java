@@ -0,0 +1,50 @@
+package de.bbq.hangman.benchmark.simd;
+
+import de.bbq.hangman.model.LengthBucket;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PatternMatcher} that compares the codes of a whole vector of candidates per instruction
+ * with the incubating Vector API. Only loaded if the module {@code jdk.incubator.vector} is present.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+final class VectorPatternMatcher extends PatternMatcher {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    VectorPatternMatcher(LengthBucket bucket) {
+        super(bucket);
+    }
+
+    @Override
+    void keepCode(int offset, byte code, long[] candidates) {
+        int lanes = SPECIES.length();
+        for (int block = 0; block < stride; block += lanes) {
+            if (bits(candidates, block, lanes) == 0) {
+                continue;
+            }
+            ByteVector letters = ByteVector.fromArray(SPECIES, codes, offset + block);
+            retainBits(candidates, block, letters.compare(VectorOperators.EQ, code).toLong(), lanes);
+        }
+    }
+
+    @Override
+    void removeExcluded(int offset, int excludedLetters, long[] candidates) {
+        int lanes = SPECIES.length();
+        for (int block = 0; block < stride; block += lanes) {
+            if (bits(candidates, block, lanes) == 0) {
+                continue;
+            }
+            ByteVector letters = ByteVector.fromArray(SPECIES, codes, offset + block);
+            VectorMask<Byte> excluded = SPECIES.maskAll(false);
+            for (int mask = excludedLetters; mask != 0; mask &= mask - 1) {
+                excluded = excluded.or(letters.compare(VectorOperators.EQ, (byte) Integer.numberOfTrailingZeros(mask)));
+            }
+            retainBits(candidates, block, ~excluded.toLong(), lanes);
+        }
+    }
+}
@@ -1,8 +1,37 @@
 package de.bbq.hangman;
 
+import de.bbq.hangman.metrics.HangmanMetrics;
+import de.bbq.hangman.model.ComputerGuesser;
+import de.bbq.hangman.model.DawgWordList;
+import de.bbq.hangman.model.DecisionTree;
+import de.bbq.hangman.model.DecisionTreeCompiler;
+import de.bbq.hangman.model.DictionaryIndex;
+import de.bbq.hangman.model.FrequencyGuesser;
 import de.bbq.hangman.model.HangmanModel;
+import de.bbq.hangman.model.MappedWordList;
+import de.bbq.hangman.model.OpeningBook;
+import de.bbq.hangman.model.WordList;
+import de.bbq.hangman.model.WordPool;
+import de.bbq.hangman.model.WordProvider;
+import de.bbq.hangman.model.WordSource;
+import de.bbq.hangman.persistence.GameEventLog;
+import de.bbq.hangman.server.HangmanServer;
+import de.bbq.hangman.server.ServerTraining;
+import de.bbq.hangman.simulation.SimulationRunner;
+import de.bbq.hangman.simulation.Tournament;
 import de.bbq.hangman.view.HangmanView;
 import de.bbq.hangman.controller.HangmanController;
+import de.bbq.hangman.controller.PacingPolicy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
 
 /**
  * Main class to start the Hangman game.
@@ -12,18 +41,261 @@ import de.bbq.hangman.controller.HangmanController;
  * @version 1.0
  */
 public class HangmanGame {
+    /** Time between two metrics reports written with {@code --metrics} */
+    private static final Duration METRICS_INTERVAL = Duration.ofSeconds(10);
+
+    /** Number of streamed words kept in memory with {@code --words} */
+    private static final int WORD_POOL_SIZE = 1024;
+
+    /** Printed when the arguments cannot be parsed */
+    private static final String USAGE = "Aufruf: java de.bbq.hangman.HangmanGame [--dictionary <Datei>] [--compile-tree]"
+            + " [--compile-dictionary <Textdatei> <Datei>] [--compile-dawg <Textdatei> <Datei>] [--words <Textdatei>|-]"
+            + " [--weights <Häufigkeitsliste>]"
+            + " [--simulate <Spiele>] [--train-server] [--tournament <Spiele>] [--seed <Zahl>] [--server <Port>]"
+            + " [--journal <Verzeichnis>] [--delay <Millisekunden>] [--metrics <Datei>]";
+
+    /** Number of values that follow each option with values */
+    private static final Map<String, Integer> OPTION_VALUES = Map.ofEntries(
+            Map.entry("--compile-dictionary", 2),
+            Map.entry("--compile-dawg", 2),
+            Map.entry("--words", 1),
+            Map.entry("--weights", 1),
+            Map.entry("--dictionary", 1),
+            Map.entry("--simulate", 1),
+            Map.entry("--tournament", 1),
+            Map.entry("--seed", 1),
+            Map.entry("--server", 1),
+            Map.entry("--journal", 1),
+            Map.entry("--metrics", 1),
+            Map.entry("--delay", 1));
 
     /**
      * The main entry point of the Hangman game.
      * Creates instances of Model, View, and Controller, then starts the game.
+     * <p>
+     * Supported arguments:
+     * <ul>
+     *     <li>{@code --dictionary <file>} plays with the words of a compiled dictionary file; its opening
+     *     book is cached next to it in {@code <file>.book} and a compiled decision tree in {@code <file>.tree}
+     *     is used if present</li>
+     *     <li>{@code --compile-tree} compiles the decision tree of the dictionary given with {@code --dictionary}</li>
+     *     <li>{@code --compile-dictionary <text file> <file>} compiles a text file with one word per line</li>
+     *     <li>{@code --compile-dawg <text file> <file>} compiles a text file into a compact word graph, which
+     *     also rejects word guesses that are not in the dictionary</li>
+     *     <li>{@code --words <text file>} draws the random words from a text file that is streamed instead of
+     *     loaded, through a pool that refills in the background; {@code -} samples them once from the standard input</li>
+     *     <li>{@code --simulate <games>} lets the computer play the given number of games without user interface</li>
+     *     <li>{@code --tournament <games>} lets all guess strategies play the same games and compares their
+     *     win rates, misses and CPU time per guess; {@code --seed <number>} chooses the words</li>
+     *     <li>{@code --server <port>} serves games to many network clients on a local TCP port</li>
+     *     <li>{@code --journal <directory>} journals the server sessions, so games survive a restart</li>
+     *     <li>{@code --delay <milliseconds>} sets the time between two computer guesses, 0 for none</li>
+     *     <li>{@code --metrics <file>} writes the runtime metrics to a file every ten seconds; they are
+     *     always available as MBeans under {@code de.bbq.hangman}</li>
+     * </ul>
+     * Text files may be gzip-compressed, {@code -} reads them from the standard input.
+     *
+     * @param args Command line arguments
+     * @throws IOException if a dictionary file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path metricsFile = null;
+        Path dictionaryFile = null;
+        boolean compileTree = false;
+        long simulatedGames = 0;
+        long tournamentGames = 0;
+        long seed = Tournament.DEFAULT_SEED;
+        int serverPort = -1;
+        boolean trainServer = false;
+        Path journalDirectory = null;
+        Duration computerDelay = HangmanController.DEFAULT_COMPUTER_DELAY;
+        String wordsArgument = null;
+        String weightsArgument = null;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + OPTION_VALUES.getOrDefault(option, 0) >= args.length) {
+                System.err.println("Fehlender Wert für " + option);
+                System.err.println(USAGE);
+                return;
+            }
+            try {
+                switch (option) {
+                    case "--compile-dictionary":
+                        MappedWordList.write(Path.of(args[i + 2]), readWords(wordSource(args[i + 1])));
+                        return;
+                    case "--compile-dawg":
+                        DawgWordList.write(Path.of(args[i + 2]), readWords(wordSource(args[i + 1])));
+                        return;
+                    case "--words":
+                        wordsArgument = args[++i];
+                        break;
+                    case "--weights":
+                        weightsArgument = args[++i];
+                        break;
+                    case "--dictionary":
+                        dictionaryFile = Path.of(args[++i]);
+                        break;
+                    case "--compile-tree":
+                        compileTree = true;
+                        break;
+                    case "--simulate":
+                        simulatedGames = Long.parseLong(args[++i]);
+                        break;
+                    case "--tournament":
+                        tournamentGames = Long.parseLong(args[++i]);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(args[++i]);
+                        break;
+                    case "--server":
+                        serverPort = Integer.parseInt(args[++i]);
+                        break;
+                    case "--train-server":
+                        trainServer = true;
+                        break;
+                    case "--journal":
+                        journalDirectory = Path.of(args[++i]);
+                        break;
+                    case "--metrics":
+                        metricsFile = Path.of(args[++i]);
+                        break;
+                    case "--delay":
+                        computerDelay = Duration.ofMillis(Long.parseLong(args[++i]));
+                        break;
+                    default:
+                        System.err.println("Unbekanntes Argument: " + option);
+                        System.err.println(USAGE);
+                        return;
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Keine gültige Zahl für " + option + ": " + args[i]);
+                System.err.println(USAGE);
+                return;
+            }
+        }
+
+        if (wordsArgument != null && weightsArgument != null) {
+            System.err.println("--weights gilt für das Wörterbuch und passt nicht zu --words");
+            return;
+        }
+        if (serverPort < 0 && ("-".equals(wordsArgument) || "-".equals(weightsArgument))) {
+            // Reading the list takes the standard input to its end, so no game input would be left
+            System.err.println("Die Standardeingabe kann nur im Server-Modus Wörter liefern, sonst liest das Spiel von ihr");
+            System.err.println(USAGE);
+            return;
+        }
+
+        DictionaryIndex index = null;
+        if (dictionaryFile != null) {
+            index = new DictionaryIndex(WordList.open(dictionaryFile));
+            Path bookFile = dictionaryFile.resolveSibling(dictionaryFile.getFileName() + ".book");
+            Path treeFile = dictionaryFile.resolveSibling(dictionaryFile.getFileName() + ".tree");
+            if (compileTree) {
+                DecisionTreeCompiler.compile(index, treeFile);
+                return;
+            }
+            if (Files.exists(treeFile)) {
+                DecisionTree.open(treeFile, index);
+            }
+            OpeningBook.loadOrBuild(index, bookFile, OpeningBook.DEFAULT_DEPTH);
+        }
+
+        WordProvider randomWords = null;
+        if (wordsArgument != null) {
+            WordSource source = wordSource(wordsArgument);
+            randomWords = source.isRepeatable()
+                    ? new WordProvider(new WordPool(source, WORD_POOL_SIZE))
+                    : WordProvider.sample(source, WORD_POOL_SIZE);
+        }
+        if (weightsArgument != null) {
+            try {
+                randomWords = WordProvider.weighted((index != null ? index : ComputerGuesser.defaultIndex()).words(),
+                        wordSource(weightsArgument));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ungültige Häufigkeitsliste: " + e.getMessage());
+                return;
+            }
+        }
+
+        if (serverPort >= 0 || trainServer || metricsFile != null) {
+            HangmanMetrics.global().registerMBeans();
+        }
+        Closeable metricsDump = metricsFile != null
+                ? HangmanMetrics.global().dumpPeriodically(metricsFile, METRICS_INTERVAL)
+                : null;
+        try (metricsDump) {
+            if (simulatedGames > 0) {
+                new SimulationRunner(index != null ? index : ComputerGuesser.defaultIndex())
+                        .runAndReport(simulatedGames, System.out);
+                return;
+            }
+
+            if (trainServer) {
+                ServerTraining.run(index);
+                return;
+            }
+
+            if (tournamentGames > 0) {
+                DictionaryIndex tournamentIndex = index != null ? index : ComputerGuesser.defaultIndex();
+                Tournament tournament = new Tournament(tournamentIndex);
+                tournament.addStrategy("Computer", () -> new ComputerGuesser(tournamentIndex));
+                tournament.addStrategy("Häufigkeit", FrequencyGuesser::new);
+                tournament.runAndReport(tournamentGames, seed, System.out);
+                return;
+            }
+
+            if (serverPort >= 0) {
+                GameEventLog journal = journalDirectory != null
+                        ? new GameEventLog(journalDirectory, GameEventLog.DEFAULT_COMMIT_INTERVAL)
+                        : null;
+                try (journal; HangmanServer server = new HangmanServer(serverPort, index, HangmanServer.DEFAULT_MAX_SESSIONS, journal)) {
+                    server.setPacingPolicy(PacingPolicy.fixedDelay(computerDelay));
+                    if (randomWords != null) {
+                        server.setWordProvider(randomWords);
+                    }
+                    if (journal != null) {
+                        System.out.println("Wiederhergestellte Sitzungen: " + journal.sessionCount());
+                    }
+                    System.out.println("Hangman-Server läuft auf Port " + server.getPort());
+                    server.serve();
+                }
+                return;
+            }
+
+            HangmanModel model = new HangmanModel();
+            HangmanView view = new HangmanView();
+            HangmanController controller = index != null
+                    ? new HangmanController(model, view, index, new Scanner(System.in))
+                    : new HangmanController(model, view);
+            controller.setPacingPolicy(PacingPolicy.fixedDelay(computerDelay));
+            if (randomWords != null) {
+                controller.setWordProvider(randomWords);
+            }
+
+            controller.startGame();
+        }
+    }
+
+    /**
+     * Creates the word source for a command line argument.
      *
-     * @param args Command line arguments (not used)
+     * @param argument A text file, or {@code -} for the standard input
+     * @return The word source
      */
-    public static void main(String[] args) {
-        HangmanModel model = new HangmanModel();
-        HangmanView view = new HangmanView();
-        HangmanController controller = new HangmanController(model, view);
+    private static WordSource wordSource(String argument) {
+        return argument.equals("-") ? WordSource.stdin() : WordSource.of(Path.of(argument));
+    }
 
-        controller.startGame();
+    /**
+     * Reads all words of a source, for compiling them into a dictionary file.
+     *
+     * @param source The words to read
+     * @return The words in canonical form
+     * @throws IOException if the source cannot be read
+     */
+    private static List<String> readWords(WordSource source) throws IOException {
+        List<String> words = new ArrayList<>();
+        source.forEach(words::add);
+        return words;
     }
 }
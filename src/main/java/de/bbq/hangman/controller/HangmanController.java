@@ -1,25 +1,40 @@
 package de.bbq.hangman.controller;
 
+import de.bbq.hangman.model.DawgWordList;
+import de.bbq.hangman.model.DictionaryIndex;
+import de.bbq.hangman.model.GuessStrategy;
 import de.bbq.hangman.model.HangmanModel;
+import de.bbq.hangman.model.WordList;
+import de.bbq.hangman.model.WordNormalizer;
 import de.bbq.hangman.model.WordProvider;
 import de.bbq.hangman.view.HangmanView;
 import de.bbq.hangman.model.ComputerGuesser;
 
+import java.time.Duration;
 import java.util.Scanner;
 
 /**
  * Controller class for the Hangman game.
  * Manages game flow, user input, and coordinates between Model and View.
+ * The computer guesser and the word provider of the dictionary are only created when a game mode
+ * first needs them, so a controller, for example of a new server session, starts without building either.
  *
  * @author Christos Poulios
  * @version 1.0
  */
 public class HangmanController {
+    /** Default time between two computer guesses, so a human can follow the game */
+    public static final Duration DEFAULT_COMPUTER_DELAY = Duration.ofMillis(1500);
+
     private final HangmanModel model;
     private final HangmanView view;
-    private final ComputerGuesser computerGuesser;
+    private final DictionaryIndex index;
+    private GuessStrategy computerGuesser;
     private final Scanner scanner;
-    private final WordProvider wordProvider;
+    private WordProvider dictionaryWords;
+    private WordProvider wordProvider;
+    private final DawgWordList dictionary;
+    private PacingPolicy pacingPolicy = PacingPolicy.fixedDelay(DEFAULT_COMPUTER_DELAY);
     private boolean isComputerMode;
 
     /**
@@ -30,21 +45,139 @@ public class HangmanController {
      * @throws IllegalArgumentException if model or view is null
      */
     public HangmanController(HangmanModel model, HangmanView view) {
+        this(model, view, new Scanner(System.in));
+    }
+
+    /**
+     * Constructs a HangmanController that reads the user input from the given scanner.
+     *
+     * @param model   The game model containing the game logic
+     * @param view    The game view handling user interface
+     * @param scanner The source of the user input, for example a network connection
+     * @throws IllegalArgumentException if model or view is null
+     */
+    public HangmanController(HangmanModel model, HangmanView view, Scanner scanner) {
+        this(model, view, null, null, scanner);
+    }
+
+    /**
+     * Constructs a HangmanController that plays with the words of the given list.
+     *
+     * @param model The game model containing the game logic
+     * @param view  The game view handling user interface
+     * @param words The dictionary for random words and the computer guesser
+     * @throws IllegalArgumentException if model or view is null
+     */
+    public HangmanController(HangmanModel model, HangmanView view, WordList words) {
+        this(model, view, new DictionaryIndex(words), new Scanner(System.in));
+    }
+
+    /**
+     * Constructs a HangmanController that plays with a shared dictionary index and reads the user
+     * input from the given scanner. If the index is built on a {@link DawgWordList}, word guesses
+     * that are not in the dictionary are rejected without costing a life.
+     *
+     * @param model   The game model containing the game logic
+     * @param view    The game view handling user interface
+     * @param index   The dictionary for random words and the computer guesser, may be shared between controllers
+     * @param scanner The source of the user input, for example a network connection
+     * @throws IllegalArgumentException if model or view is null
+     */
+    public HangmanController(HangmanModel model, HangmanView view, DictionaryIndex index, Scanner scanner) {
+        this(model, view, index, index.words() instanceof DawgWordList dawg ? dawg : null, scanner);
+    }
+
+    private HangmanController(HangmanModel model, HangmanView view, DictionaryIndex index, DawgWordList dictionary,
+                              Scanner scanner) {
         if (model == null || view == null) {
             throw new IllegalArgumentException("Model and View cannot be null");
         }
         this.model = model;
         this.view = view;
-        this.computerGuesser = new ComputerGuesser();
-        this.scanner = new Scanner(System.in);
-        this.wordProvider = new WordProvider();
+        this.index = index;
+        this.scanner = scanner;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Gets the dictionary the controller plays with.
+     *
+     * @return The given dictionary index, or the index over the predefined words if none was given
+     */
+    private DictionaryIndex index() {
+        return index != null ? index : ComputerGuesser.defaultIndex();
+    }
+
+    /**
+     * Gets the strategy of the computer, creating a {@link ComputerGuesser} on the dictionary on first use.
+     *
+     * @return The computer guess strategy
+     */
+    private GuessStrategy computerGuesser() {
+        if (computerGuesser == null) {
+            computerGuesser = new ComputerGuesser(index());
+        }
+        return computerGuesser;
+    }
+
+    /**
+     * Gets the provider of the dictionary words, taking the shared provider of the dictionary on first use.
+     *
+     * @return The provider drawing from the dictionary
+     */
+    private WordProvider dictionaryWords() {
+        if (dictionaryWords == null) {
+            dictionaryWords = WordProvider.of(index());
+        }
+        return dictionaryWords;
+    }
+
+    /**
+     * Sets how long the computer waits between its guesses.
+     *
+     * @param pacingPolicy The pacing of the computer guess mode
+     * @throws IllegalArgumentException if the policy is null
+     */
+    public void setPacingPolicy(PacingPolicy pacingPolicy) {
+        if (pacingPolicy == null) {
+            throw new IllegalArgumentException("Pacing policy cannot be null");
+        }
+        this.pacingPolicy = pacingPolicy;
+    }
+
+    /**
+     * Sets the strategy the computer guesses with in the computer guess mode.
+     * By default the computer plays a {@link ComputerGuesser} on the dictionary.
+     *
+     * @param guessStrategy The strategy of the computer
+     * @throws IllegalArgumentException if the strategy is null
+     */
+    public void setGuessStrategy(GuessStrategy guessStrategy) {
+        if (guessStrategy == null) {
+            throw new IllegalArgumentException("Guess strategy cannot be null");
+        }
+        this.computerGuesser = guessStrategy;
+    }
+
+    /**
+     * Sets where the random words come from, for example a provider streaming from a {@link de.bbq.hangman.model.WordPool}.
+     * The computer guesser and the adversarial mode keep using the dictionary.
+     *
+     * @param wordProvider The provider of random words
+     * @throws IllegalArgumentException if the provider is null
+     */
+    public void setWordProvider(WordProvider wordProvider) {
+        if (wordProvider == null) {
+            throw new IllegalArgumentException("Word provider cannot be null");
+        }
+        this.wordProvider = wordProvider;
     }
 
     /**
      * Prompts the user to choose a game mode and returns the word to guess.
-     * Handles both computer guessing mode and user input mode.
+     * Handles computer guessing mode, random word mode and adversarial mode.
      *
-     * @return The word to guess in the game
+     * @return The word to guess in the game, or null if an adversarial game was started
      */
     private String getGameWord() {
         while (true) {
@@ -57,7 +190,18 @@ public class HangmanController {
                     return startComputerGuessMode();
                 case "2":
                     isComputerMode = false;
-                    return wordProvider.getRandomWord();
+                    return (wordProvider != null ? wordProvider : dictionaryWords()).getRandomWord();
+                case "3":
+                    // Only the length is drawn, the model does not commit to a word
+                    isComputerMode = false;
+                    try {
+                        model.initializeAdversarialGame(index(), dictionaryWords().getRandomWord(1, Long.SIZE).length());
+                        return null;
+                    } catch (IllegalArgumentException e) {
+                        // No word of at most 64 chars, or none of the drawn length starts with a letter
+                        view.showAdversarialModeUnavailable();
+                    }
+                    break;
                 default:
                     view.showInvalidMode();
             }
@@ -68,15 +212,29 @@ public class HangmanController {
     /**
      * Starts and controls the main game loop.
      * This method manages the overall flow of the game, including multiple rounds
-     * and game restarts.
+     * and game restarts. If the model already holds an unfinished game, for example one
+     * restored from a journal, that game is continued first. When the player stops or the input ends, the
+     * computer guesser gives its pooled state back.
      */
     public void startGame() {
-        boolean playing = true;
-        while (playing) {
-            playOneGame();
-            playing = askForNewGame();
+        try {
+            boolean playing = true;
+            if (model.getWordToGuess() != null && !model.isGameOver() && !model.isGameWon()) {
+                view.showGameResumed();
+                playUntilGameEnds();
+                playing = askForNewGame();
+            }
+            while (playing) {
+                playOneGame();
+                playing = askForNewGame();
+            }
+        } finally {
+            // Also when the input ends or the connection drops in the middle of a game
+            if (computerGuesser != null) {
+                computerGuesser.release();
+            }
+            scanner.close();
         }
-        scanner.close();
     }
 
     /**
@@ -96,9 +254,17 @@ public class HangmanController {
             return;
         }
 
-        // Normal game mode
-        model.initializeGame(word);
+        // Normal game mode, an adversarial game is already initialized
+        if (word != null) {
+            model.initializeGame(word);
+        }
+        playUntilGameEnds();
+    }
 
+    /**
+     * Lets the user guess until the current game is won or lost.
+     */
+    private void playUntilGameEnds() {
         while (!model.isGameOver() && !model.isGameWon()) {
             view.showGameState(
                     model.getCurrentDisplay(),
@@ -122,7 +288,7 @@ public class HangmanController {
      */
     private void processGuess() {
         view.promptForGuess();
-        String input = scanner.nextLine().toLowerCase();
+        String input = WordNormalizer.normalize(scanner.nextLine());
 
 
         if (input.length() == 1) {
@@ -141,6 +307,12 @@ public class HangmanController {
         }
 
         else {
+            // Words from --words need not be in the dictionary, so the word itself is always accepted
+            if (dictionary != null && !input.equals(model.getWordToGuess()) && !dictionary.contains(input)) {
+                view.showUnknownWord();
+                return;
+            }
+
             if (model.guessWord(input)) {
                 view.showCorrectGuess();
             } else {
@@ -169,19 +341,24 @@ public class HangmanController {
         view.promptForWord();
         String userWord = scanner.nextLine();
 
-        computerGuesser.initializeGuesser();
-        model.initializeGame(userWord);
+        GuessStrategy guesser = computerGuesser();
+        guesser.initializeGuesser();
+        model.initializeComputerGame(userWord);
+        guesser.updatePossibleWords(
+                model.getCurrentDisplay(),
+                model.getGuessedLetters()
+        );
 
         view.showComputerStartsGuessing();
 
-        while (!model.isGameOver() && !model.isGameWon() && computerGuesser.hasMoreLetters()) {
+        while (!model.isGameOver() && !model.isGameWon() && guesser.hasMoreLetters()) {
             view.showGameState(
                     model.getCurrentDisplay(),
                     model.getRemainingLives(),
                     model.getGuessedLetters()
             );
 
-            char computerGuess = computerGuesser.getNextLetterGuess();
+            char computerGuess = guesser.getNextLetterGuess();
             view.showComputerLetterGuess(computerGuess);
 
             if (model.hasBeenGuessed(computerGuess)) {
@@ -194,20 +371,21 @@ public class HangmanController {
                 view.showWrongGuess();
             }
 
-            computerGuesser.updatePossibleWords(
+            guesser.updatePossibleWords(
                     model.getCurrentDisplay(),
                     model.getGuessedLetters()
             );
+            view.flush();
 
             try {
-                Thread.sleep(1500);
+                pacingPolicy.awaitNextMove();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
 
-        if (!model.isGameWon() && !model.isGameOver() && computerGuesser.hasMoreLetters()) {
-            String wordGuess = computerGuesser.getWordGuess(model.getCurrentDisplay());
+        if (!model.isGameWon() && !model.isGameOver() && guesser.hasMoreLetters()) {
+            String wordGuess = guesser.getWordGuess(model.getCurrentDisplay());
             view.showComputerWordGuess(wordGuess);
             model.guessWord(wordGuess);
         }
@@ -0,0 +1,46 @@
+package de.bbq.hangman.controller;
+
+import java.time.Duration;
+
+/**
+ * Decides how long the controller waits between two guesses of the computer.
+ * Demo play paces the computer so a human can follow it, automated play runs without any delay.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface PacingPolicy {
+
+    /**
+     * Waits until the computer may make its next move.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    void awaitNextMove() throws InterruptedException;
+
+    /**
+     * Creates a policy that lets the computer move immediately.
+     *
+     * @return A policy without delay
+     */
+    static PacingPolicy noDelay() {
+        return () -> {
+        };
+    }
+
+    /**
+     * Creates a policy that sleeps for a fixed time before every move.
+     * On a virtual thread the sleep parks the game and frees its carrier thread, so paced games
+     * of a server need no timer of their own.
+     *
+     * @param delay The time between two moves
+     * @return A policy with a fixed delay
+     */
+    static PacingPolicy fixedDelay(Duration delay) {
+        if (delay.isZero()) {
+            return noDelay();
+        }
+        return () -> Thread.sleep(delay);
+    }
+}
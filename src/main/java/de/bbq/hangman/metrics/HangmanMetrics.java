@@ -0,0 +1,222 @@
+package de.bbq.hangman.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of the runtime metrics of the game.
+ * Counters are striped {@link LongAdder}s and distributions are {@link Histogram}s, so recording
+ * never blocks and never allocates. All metrics can be exposed as MBeans under the domain
+ * {@code de.bbq.hangman} and written to a file at a fixed interval.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class HangmanMetrics implements HangmanMetricsMXBean {
+    private static final String DOMAIN = "de.bbq.hangman";
+
+    /** Metrics of this process */
+    private static final HangmanMetrics GLOBAL = new HangmanMetrics();
+
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder guesses = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder losses = new LongAdder();
+    private final Histogram gameDuration = new Histogram();
+    private final Histogram candidateSetSize = new Histogram();
+    private final Histogram updateTime = new Histogram();
+    private final Histogram filterTime = new Histogram();
+
+    /** Histograms by name, in report order */
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+
+    private boolean registered;
+
+    private HangmanMetrics() {
+        histograms.put("gameDurationNanos", gameDuration);
+        histograms.put("candidateSetSize", candidateSetSize);
+        histograms.put("updatePossibleWordsNanos", updateTime);
+        histograms.put("filterWordsByPatternNanos", filterTime);
+    }
+
+    /**
+     * Gets the metrics of this process.
+     *
+     * @return The shared metrics registry
+     */
+    public static HangmanMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Records the start of a game.
+     */
+    public void gameStarted() {
+        gamesStarted.increment();
+    }
+
+    /**
+     * Records a processed letter or word guess.
+     */
+    public void guessProcessed() {
+        guesses.increment();
+    }
+
+    /**
+     * Records the end of a game.
+     *
+     * @param won           true if the word was guessed
+     * @param durationNanos The time from the start to the end of the game
+     */
+    public void gameFinished(boolean won, long durationNanos) {
+        if (won) {
+            wins.increment();
+        } else {
+            losses.increment();
+        }
+        gameDuration.record(durationNanos);
+    }
+
+    /**
+     * Gets the distribution of the computer's candidate set sizes after each update.
+     *
+     * @return The histogram
+     */
+    public Histogram candidateSetSize() {
+        return candidateSetSize;
+    }
+
+    /**
+     * Gets the distribution of the time spent in {@code ComputerGuesser.updatePossibleWords}.
+     *
+     * @return The histogram in nanoseconds
+     */
+    public Histogram updateTime() {
+        return updateTime;
+    }
+
+    /**
+     * Gets the distribution of the time spent in {@code ComputerGuesser.filterWordsByPattern}.
+     *
+     * @return The histogram in nanoseconds
+     */
+    public Histogram filterTime() {
+        return filterTime;
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGuesses() {
+        return guesses.sum();
+    }
+
+    @Override
+    public long getWins() {
+        return wins.sum();
+    }
+
+    @Override
+    public long getLosses() {
+        return losses.sum();
+    }
+
+    /**
+     * Registers the counters and all histograms with the platform MBean server.
+     * Registering more than once has no effect.
+     */
+    public synchronized void registerMBeans() {
+        if (registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(DOMAIN + ":type=Metrics"));
+            for (Map.Entry<String, Histogram> histogram : histograms.entrySet()) {
+                server.registerMBean(histogram.getValue(),
+                        new ObjectName(DOMAIN + ":type=Histogram,name=" + histogram.getKey()));
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Metrics cannot be registered", e);
+        }
+        registered = true;
+    }
+
+    /**
+     * Writes all metrics as {@code name value} lines.
+     *
+     * @return The report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(1024);
+        report.append("gamesStarted ").append(getGamesStarted()).append('\n');
+        report.append("guesses ").append(getGuesses()).append('\n');
+        report.append("wins ").append(getWins()).append('\n');
+        report.append("losses ").append(getLosses()).append('\n');
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            String name = entry.getKey();
+            report.append(name).append(".count ").append(histogram.getCount()).append('\n');
+            report.append(name).append(".mean ").append(String.format(Locale.ROOT, "%.1f", histogram.getMean())).append('\n');
+            report.append(name).append(".p50 ").append(histogram.getP50()).append('\n');
+            report.append(name).append(".p90 ").append(histogram.getP90()).append('\n');
+            report.append(name).append(".p99 ").append(histogram.getP99()).append('\n');
+            report.append(name).append(".p999 ").append(histogram.getP999()).append('\n');
+            report.append(name).append(".max ").append(histogram.getMax()).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Writes the report to a file at a fixed interval on a daemon thread. The file is replaced
+     * atomically, so readers never see a partial report.
+     *
+     * @param file     The file to write
+     * @param interval The time between two reports
+     * @return Handle that stops the dumping and writes a last report when closed
+     */
+    public Closeable dumpPeriodically(Path file, Duration interval) {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "hangman-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(() -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                // Keep the schedule alive, the next report may succeed
+                System.err.println("Metriken konnten nicht geschrieben werden: " + e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return () -> {
+            timer.shutdown();
+            dump(file);
+        };
+    }
+
+    private void dump(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temporary, report(), StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
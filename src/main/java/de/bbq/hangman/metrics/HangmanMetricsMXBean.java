@@ -0,0 +1,38 @@
+package de.bbq.hangman.metrics;
+
+/**
+ * Management interface of the game counters of {@link HangmanMetrics}.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public interface HangmanMetricsMXBean {
+
+    /**
+     * Gets the number of games started.
+     *
+     * @return The count
+     */
+    long getGamesStarted();
+
+    /**
+     * Gets the number of letter and word guesses processed.
+     *
+     * @return The count
+     */
+    long getGuesses();
+
+    /**
+     * Gets the number of games won.
+     *
+     * @return The count
+     */
+    long getWins();
+
+    /**
+     * Gets the number of games lost.
+     *
+     * @return The count
+     */
+    long getLosses();
+}
@@ -0,0 +1,163 @@
+package de.bbq.hangman.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of non-negative long values, for example latencies in nanoseconds.
+ * Like an HDR histogram it splits every power of two into 32 linear sub-buckets, so any value
+ * up to {@link Long#MAX_VALUE} is kept with a relative error of at most about 3 % in a fixed
+ * table of under 2000 counters. Recording is a few shifts and one atomic increment and
+ * allocates nothing, so it can stay enabled in production.
+ * <p>
+ * Like a {@link LongAdder}, the table is striped: there is one copy per processor, up to
+ * {@link #MAX_STRIPES}, and each thread counts in the copy its id hashes to, so threads recording
+ * at the same time rarely write to the same cache line. Reading adds up all copies.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class Histogram implements HistogramMXBean {
+    /** Bits of a value kept exactly; the sub-buckets of one power of two are half of that range */
+    private static final int PRECISION_BITS = 6;
+    private static final int HALF_RANGE = 1 << (PRECISION_BITS - 1);
+    private static final int BUCKET_COUNT = (Long.SIZE - PRECISION_BITS + 2) * HALF_RANGE;
+
+    /** Largest number of copies of the table */
+    private static final int MAX_STRIPES = 16;
+
+    private final AtomicLongArray[] stripes;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty histogram with one stripe per processor.
+     */
+    public Histogram() {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES);
+        this.stripes = new AtomicLongArray[Integer.highestOneBit(processors * 2 - 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value The value
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        stripe().getAndIncrement(indexOf(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Gets the copy of the table the current thread counts in.
+     */
+    private AtomicLongArray stripe() {
+        if (stripes.length == 1) {
+            return stripes[0];
+        }
+        long id = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (id >>> 32) & (stripes.length - 1)];
+    }
+
+    /**
+     * Gets the number of values recorded in a bucket over all stripes.
+     */
+    private long count(int index) {
+        long count = 0;
+        for (AtomicLongArray stripe : stripes) {
+            count += stripe.get(index);
+        }
+        return count;
+    }
+
+    private static int indexOf(long value) {
+        int magnitude = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - PRECISION_BITS);
+        return magnitude * HALF_RANGE + (int) (value >>> magnitude);
+    }
+
+    /**
+     * Gets the largest value that falls into a bucket.
+     */
+    private static long highestValueOf(int index) {
+        if (index < 2 * HALF_RANGE) {
+            return index;
+        }
+        int magnitude = index / HALF_RANGE - 1;
+        long subBucket = index - (long) magnitude * HALF_RANGE;
+        long upperBound = (subBucket + 1) << magnitude;
+        return upperBound <= 0 ? Long.MAX_VALUE : upperBound - 1;
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += count(i);
+        }
+        return count;
+    }
+
+    @Override
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets a percentile of the recorded values.
+     *
+     * @param percentile The percentile between 0 and 100
+     * @return The smallest bucket value that at least the given share of values does not exceed,
+     *         0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = count(i);
+            count += snapshot[i];
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long getP50() {
+        return getPercentile(50);
+    }
+
+    @Override
+    public long getP90() {
+        return getPercentile(90);
+    }
+
+    @Override
+    public long getP99() {
+        return getPercentile(99);
+    }
+
+    @Override
+    public long getP999() {
+        return getPercentile(99.9);
+    }
+}
@@ -0,0 +1,59 @@
+package de.bbq.hangman.metrics;
+
+/**
+ * Management interface of a {@link Histogram}.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public interface HistogramMXBean {
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The count
+     */
+    long getCount();
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return The exact mean, 0 if nothing was recorded
+     */
+    double getMean();
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return The exact maximum, 0 if nothing was recorded
+     */
+    long getMax();
+
+    /**
+     * Gets the median of the recorded values.
+     *
+     * @return The median within the histogram's precision
+     */
+    long getP50();
+
+    /**
+     * Gets the 90th percentile of the recorded values.
+     *
+     * @return The percentile within the histogram's precision
+     */
+    long getP90();
+
+    /**
+     * Gets the 99th percentile of the recorded values.
+     *
+     * @return The percentile within the histogram's precision
+     */
+    long getP99();
+
+    /**
+     * Gets the 99.9th percentile of the recorded values.
+     *
+     * @return The percentile within the histogram's precision
+     */
+    long getP999();
+}
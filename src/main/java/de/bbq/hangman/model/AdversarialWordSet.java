@@ -0,0 +1,194 @@
+package de.bbq.hangman.model;
+
+/**
+ * The words of one length that an adversarial ("evil") game has not ruled out yet.
+ * Instead of committing to a word, the game answers every guess with the reveal pattern shared
+ * by the most remaining words and keeps only those words.
+ * <p>
+ * A reveal pattern is packed into a long with one bit per position after the first. The patterns of all
+ * candidates are built from the position postings of the bucket, one bitset word of 64 candidates at a
+ * time, so only actual hits touch single candidates. Their classes are counted in a {@link LongIntHashMap}.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class AdversarialWordSet {
+    private final LengthBucket bucket;
+    private final CandidateSet candidates;
+    private final long[] patterns;
+    private final LongIntHashMap classes;
+    private final char[] chars;
+    private int count;
+    private String representative;
+
+    /**
+     * Starts with the words of a bucket that share the most common first letter,
+     * since the first letter is shown from the start.
+     *
+     * @param bucket The words of the chosen length
+     * @throws IllegalArgumentException if the words are longer than 64 chars or no word starts with a letter
+     */
+    public AdversarialWordSet(LengthBucket bucket) {
+        if (bucket.length() > Long.SIZE) {
+            throw new IllegalArgumentException("Words must not be longer than " + Long.SIZE + " chars");
+        }
+        this.bucket = bucket;
+        this.candidates = new CandidateSet(bucket.size());
+        this.patterns = new long[bucket.size()];
+        this.classes = new LongIntHashMap(64);
+        this.chars = new char[bucket.length()];
+
+        int bestLetter = -1;
+        int bestCount = 0;
+        for (int letter = 0; letter < Alphabet.SIZE; letter++) {
+            int letterCount = bucket.positionPosting(0, letter).cardinality();
+            if (letterCount > bestCount) {
+                bestCount = letterCount;
+                bestLetter = letter;
+            }
+        }
+        if (bestLetter < 0) {
+            throw new IllegalArgumentException("No word starts with a letter");
+        }
+        candidates.copyFrom(bucket.positionPosting(0, bestLetter));
+        this.count = bestCount;
+    }
+
+    /**
+     * Gets the length of the words.
+     *
+     * @return The word length
+     */
+    public int length() {
+        return bucket.length();
+    }
+
+    /**
+     * Gets the number of words not ruled out yet.
+     *
+     * @return The number of candidates
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets one of the words not ruled out yet, for example to show it when the game is lost.
+     *
+     * @return A word consistent with all answers so far
+     */
+    public String representative() {
+        if (representative == null) {
+            representative = bucket.word(candidates.nextSetBit(0));
+        }
+        return representative;
+    }
+
+    /**
+     * Answers a letter guess with the reveal pattern of the largest class of candidates.
+     * Ties go to the pattern that reveals fewer positions, so a miss wins over a hit of equal size.
+     *
+     * @param letter The guessed letter in lower case, not guessed before
+     * @return The positions after the first at which the letter is revealed, 0 for a miss
+     */
+    public long answer(char letter) {
+        int index = Alphabet.indexOf(letter);
+        if (index >= 0) {
+            collectPostingPatterns(index);
+        } else {
+            collectCharPatterns(letter);
+        }
+
+        long best = 0;
+        int bestCount = -1;
+        for (int entry = 0; entry < classes.size(); entry++) {
+            long pattern = classes.keyAt(entry);
+            int classCount = classes.valueAt(entry);
+            if (classCount > bestCount || classCount == bestCount
+                    && Long.bitCount(pattern) < Long.bitCount(best)) {
+                best = pattern;
+                bestCount = classCount;
+            }
+        }
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (patterns[i] != best) {
+                candidates.clear(i);
+            }
+            patterns[i] = 0;
+        }
+        classes.clear();
+        count = bestCount;
+        representative = null;
+        return best;
+    }
+
+    /**
+     * Answers a word guess. The guess is only right once it is the last word left,
+     * otherwise it is ruled out.
+     *
+     * @param word The guessed word in canonical form
+     * @return true if the guess is the only remaining candidate
+     */
+    public boolean answerWord(String word) {
+        if (word.length() != bucket.length()) {
+            return false;
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            bucket.wordChars(i, chars);
+            if (equals(word, chars)) {
+                if (count == 1) {
+                    return true;
+                }
+                candidates.clear(i);
+                count--;
+                representative = null;
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equals(String word, char[] chars) {
+        for (int i = 0; i < chars.length; i++) {
+            if (word.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builds the reveal pattern of every candidate for an alphabet letter from the position postings.
+     * Misses are 0 and are never touched; each hit sets one bit in the pattern of its candidate.
+     */
+    private void collectPostingPatterns(int letter) {
+        for (int position = 1; position < bucket.length(); position++) {
+            CandidateSet posting = bucket.positionPosting(position, letter);
+            long bit = 1L << position;
+            for (int i = candidates.nextCommonBit(posting, 0); i >= 0; i = candidates.nextCommonBit(posting, i + 1)) {
+                patterns[i] |= bit;
+            }
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            classes.add(patterns[i], 1);
+        }
+    }
+
+    /**
+     * Builds the reveal pattern of every candidate for a character outside the alphabet from the words themselves.
+     */
+    private void collectCharPatterns(char letter) {
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            bucket.wordChars(i, chars);
+            long pattern = 0;
+            for (int position = 1; position < chars.length; position++) {
+                if (chars[position] == letter) {
+                    pattern |= 1L << position;
+                }
+            }
+            patterns[i] = pattern;
+            classes.add(pattern, 1);
+        }
+    }
+}
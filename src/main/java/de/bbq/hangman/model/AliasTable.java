@@ -0,0 +1,91 @@
+package de.bbq.hangman.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Alias table for drawing indices with given weights in constant time (Vose's method).
+ * Every slot holds a probability and an alias; a draw picks a slot uniformly and returns either
+ * the slot or its alias, so the cost does not depend on the number of weights.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class AliasTable {
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * Builds the table for the given weights.
+     *
+     * @param weights Non-negative weights, at least one of them positive
+     * @throws IllegalArgumentException if a weight is negative or all weights are 0
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weights must be finite and non-negative");
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+
+        this.probabilities = new double[n];
+        this.aliases = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // What is left is 1 up to rounding errors
+        while (largeCount > 0) {
+            probabilities[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probabilities[small[--smallCount]] = 1;
+        }
+    }
+
+    /**
+     * Gets the number of weights.
+     *
+     * @return The size of the table
+     */
+    public int size() {
+        return probabilities.length;
+    }
+
+    /**
+     * Draws an index with probability proportional to its weight.
+     *
+     * @param random The source of randomness, e.g. {@link java.util.concurrent.ThreadLocalRandom#current()}
+     * @return The drawn index
+     */
+    public int sample(RandomGenerator random) {
+        int slot = random.nextInt(probabilities.length);
+        return random.nextDouble() < probabilities[slot] ? slot : aliases[slot];
+    }
+}
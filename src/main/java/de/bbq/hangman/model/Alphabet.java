@@ -0,0 +1,54 @@
+package de.bbq.hangman.model;
+
+import java.util.Arrays;
+
+/**
+ * Letter alphabet of the Hangman game.
+ * Maps every supported letter to a dense index so that sets of letters fit into a single int mask.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class Alphabet {
+    /** All letters the game knows, in index order */
+    public static final String LETTERS = "abcdefghijklmnopqrstuvwxyzäöüß";
+
+    /** Number of letters in the alphabet */
+    public static final int SIZE = LETTERS.length();
+
+    /** Mask with every letter of the alphabet set */
+    public static final int ALL = (1 << SIZE) - 1;
+
+    /** Lookup table from Latin-1 character to letter index, -1 for characters outside the alphabet */
+    private static final byte[] INDEX = new byte[256];
+
+    static {
+        Arrays.fill(INDEX, (byte) -1);
+        for (int i = 0; i < SIZE; i++) {
+            INDEX[LETTERS.charAt(i)] = (byte) i;
+        }
+    }
+
+    private Alphabet() {
+    }
+
+    /**
+     * Gets the index of a letter.
+     *
+     * @param c The letter, already in lower case
+     * @return The index of the letter, or -1 if it is not part of the alphabet
+     */
+    public static int indexOf(char c) {
+        return c < INDEX.length ? INDEX[c] : -1;
+    }
+
+    /**
+     * Gets the letter at the given index.
+     *
+     * @param index The letter index
+     * @return The letter
+     */
+    public static char letterAt(int index) {
+        return LETTERS.charAt(index);
+    }
+}
@@ -0,0 +1,48 @@
+package de.bbq.hangman.model;
+
+/**
+ * Word list backed by a String array on the heap.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class ArrayWordList implements WordList {
+    private final String[] words;
+    private final int maxLength;
+
+    /**
+     * Constructs a word list over the given words.
+     *
+     * @param words The words, the array must not be modified afterwards
+     */
+    public ArrayWordList(String[] words) {
+        this.words = words;
+        int longest = 0;
+        for (String word : words) {
+            longest = Math.max(longest, word.length());
+        }
+        this.maxLength = longest;
+    }
+
+    @Override
+    public int size() {
+        return words.length;
+    }
+
+    @Override
+    public int maxLength() {
+        return maxLength;
+    }
+
+    @Override
+    public String get(int index) {
+        return words[index];
+    }
+
+    @Override
+    public int getChars(int index, char[] target) {
+        String word = words[index];
+        word.getChars(0, word.length(), target, 0);
+        return word.length();
+    }
+}
@@ -0,0 +1,203 @@
+package de.bbq.hangman.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Applies posting sets to candidate sets and counts intersections, choosing the cheapest way for the set at hand.
+ * <ul>
+ *     <li>Sparse sets are visited candidate by candidate, so late turns cost as little as the few words left.</li>
+ *     <li>Dense sets of small buckets run as one sequential pass in the caller's thread.</li>
+ *     <li>Dense sets of very large buckets are split into chunks of bitset words that run on the
+ *     common fork-join pool, each chunk applying every posting set while it is in the cache.</li>
+ * </ul>
+ * All three give the same result; the choice only depends on the expected amount of work.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class CandidateFilter {
+    /** A set counts as sparse when it holds fewer candidates than its bitset words divided by this ratio */
+    static final int SPARSE_RATIO = 16;
+
+    /** Bitset words times posting sets below which splitting the work costs more than it saves */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** Bitset words per fork-join task, 16 KB of every posting set */
+    static final int CHUNK_WORDS = 1 << 11;
+
+    /** No sets, for calls that only keep or only remove */
+    static final CandidateSet[] NONE = new CandidateSet[0];
+
+    private CandidateFilter() {
+    }
+
+    /**
+     * Keeps the candidates that are part of every kept set and of no removed set.
+     *
+     * @param candidates  The candidates, updated in place
+     * @param cardinality The number of candidates before the call, or {@link CandidateSet#size()} if unknown
+     * @param keep        Sets whose members are kept
+     * @param remove      Sets whose members are removed
+     * @return The number of candidates left
+     */
+    public static int retain(CandidateSet candidates, int cardinality, CandidateSet[] keep, CandidateSet[] remove) {
+        return retain(candidates, cardinality, keep, keep.length, remove, remove.length);
+    }
+
+    /**
+     * Keeps the candidates that are part of every kept set and of no removed set,
+     * taking the sets from the start of reusable arrays.
+     *
+     * @param candidates  The candidates, updated in place
+     * @param cardinality The number of candidates before the call, or {@link CandidateSet#size()} if unknown
+     * @param keep        Sets whose members are kept
+     * @param keepCount   The number of kept sets at the start of the array
+     * @param remove      Sets whose members are removed
+     * @param removeCount The number of removed sets at the start of the array
+     * @return The number of candidates left
+     */
+    public static int retain(CandidateSet candidates, int cardinality,
+                             CandidateSet[] keep, int keepCount, CandidateSet[] remove, int removeCount) {
+        int wordCount = candidates.wordCount();
+        if (isSparse(cardinality, wordCount)) {
+            return candidates.retainSparse(keep, keepCount, remove, removeCount);
+        }
+        if (!isParallel(wordCount, keepCount + removeCount)) {
+            return candidates.retain(keep, keepCount, remove, removeCount, 0, wordCount);
+        }
+        return ForkJoinPool.commonPool().invoke(
+                new RetainTask(candidates, keep, keepCount, remove, removeCount, 0, wordCount));
+    }
+
+    /**
+     * Keeps the candidates that are part of every kept set.
+     *
+     * @param candidates  The candidates, updated in place
+     * @param cardinality The number of candidates before the call, or {@link CandidateSet#size()} if unknown
+     * @param keep        Sets whose members are kept
+     * @return The number of candidates left
+     */
+    public static int retain(CandidateSet candidates, int cardinality, CandidateSet[] keep) {
+        return retain(candidates, cardinality, keep, NONE);
+    }
+
+    /**
+     * Counts, for every posting set, the candidates that are part of it.
+     *
+     * @param candidates  The candidates
+     * @param cardinality The number of candidates, or {@link CandidateSet#size()} if unknown
+     * @param postings    Sets to intersect with, null entries get a count of 0
+     * @return The intersection count per posting set
+     */
+    public static int[] intersectionCounts(CandidateSet candidates, int cardinality, CandidateSet[] postings) {
+        int[] counts = new int[postings.length];
+        intersectionCounts(candidates, cardinality, postings, counts);
+        return counts;
+    }
+
+    /**
+     * Counts, for every posting set, the candidates that are part of it, into a reusable array.
+     *
+     * @param candidates  The candidates
+     * @param cardinality The number of candidates, or {@link CandidateSet#size()} if unknown
+     * @param postings    Sets to intersect with, null entries get a count of 0
+     * @param counts      Receives the intersection count per posting set, at least as long as the postings
+     */
+    static void intersectionCounts(CandidateSet candidates, int cardinality, CandidateSet[] postings, int[] counts) {
+        int wordCount = candidates.wordCount();
+        Arrays.fill(counts, 0, postings.length, 0);
+        if (isSparse(cardinality, wordCount)) {
+            candidates.addIntersectionCountsSparse(postings, counts);
+        } else if (!isParallel(wordCount, postings.length)) {
+            candidates.addIntersectionCounts(postings, counts, 0, wordCount);
+        } else {
+            int[] parallelCounts = ForkJoinPool.commonPool().invoke(new CountTask(candidates, postings, 0, wordCount));
+            System.arraycopy(parallelCounts, 0, counts, 0, postings.length);
+        }
+    }
+
+    private static boolean isSparse(int cardinality, int wordCount) {
+        return (long) cardinality * SPARSE_RATIO < wordCount;
+    }
+
+    private static boolean isParallel(int wordCount, int sets) {
+        return (long) wordCount * sets >= PARALLEL_THRESHOLD
+                && wordCount > CHUNK_WORDS
+                && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Applies the posting sets to a range of bitset words, splitting it in halves down to {@link #CHUNK_WORDS}.
+     */
+    @SuppressWarnings("serial")
+    private static final class RetainTask extends RecursiveTask<Integer> {
+        private final CandidateSet candidates;
+        private final CandidateSet[] keep;
+        private final int keepCount;
+        private final CandidateSet[] remove;
+        private final int removeCount;
+        private final int fromWord;
+        private final int toWord;
+
+        RetainTask(CandidateSet candidates, CandidateSet[] keep, int keepCount, CandidateSet[] remove, int removeCount,
+                   int fromWord, int toWord) {
+            this.candidates = candidates;
+            this.keep = keep;
+            this.keepCount = keepCount;
+            this.remove = remove;
+            this.removeCount = removeCount;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (toWord - fromWord <= CHUNK_WORDS) {
+                return candidates.retain(keep, keepCount, remove, removeCount, fromWord, toWord);
+            }
+            int middle = (fromWord + toWord) >>> 1;
+            RetainTask left = new RetainTask(candidates, keep, keepCount, remove, removeCount, fromWord, middle);
+            left.fork();
+            int right = new RetainTask(candidates, keep, keepCount, remove, removeCount, middle, toWord).compute();
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * Counts the intersections of a range of bitset words, splitting it in halves down to {@link #CHUNK_WORDS}.
+     */
+    @SuppressWarnings("serial")
+    private static final class CountTask extends RecursiveTask<int[]> {
+        private final CandidateSet candidates;
+        private final CandidateSet[] postings;
+        private final int fromWord;
+        private final int toWord;
+
+        CountTask(CandidateSet candidates, CandidateSet[] postings, int fromWord, int toWord) {
+            this.candidates = candidates;
+            this.postings = postings;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (toWord - fromWord <= CHUNK_WORDS) {
+                int[] counts = new int[postings.length];
+                candidates.addIntersectionCounts(postings, counts, fromWord, toWord);
+                return counts;
+            }
+            int middle = (fromWord + toWord) >>> 1;
+            CountTask left = new CountTask(candidates, postings, fromWord, middle);
+            left.fork();
+            int[] counts = new CountTask(candidates, postings, middle, toWord).compute();
+            int[] leftCounts = left.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += leftCounts[i];
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package de.bbq.hangman.model;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size bitset over word indices of a dictionary.
+ * Unlike {@link java.util.BitSet} it counts intersections without creating intermediate sets,
+ * which keeps letter scoring free of allocations. A set can be {@linkplain #resize(int) resized} to
+ * any range within the capacity it was created with, so one set can be reused for buckets of any size.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class CandidateSet {
+    private final long[] words;
+    private int size;
+    private int wordsInUse;
+
+    /**
+     * Constructs an empty set for word indices in the range [0, size).
+     *
+     * @param size The number of word indices the set can hold
+     */
+    public CandidateSet(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+        this.wordsInUse = words.length;
+    }
+
+    /**
+     * Reuses the set for word indices in the range [0, size) and empties it.
+     *
+     * @param size The number of word indices the set holds from now on
+     * @throws IllegalArgumentException if the size exceeds the size the set was created with
+     */
+    void resize(int size) {
+        int newWordsInUse = (size + 63) >>> 6;
+        if (size < 0 || newWordsInUse > words.length) {
+            throw new IllegalArgumentException("Size " + size + " exceeds the capacity of the set");
+        }
+        this.size = size;
+        this.wordsInUse = newWordsInUse;
+        clearAll();
+    }
+
+    /**
+     * Gets the number of word indices the set can hold.
+     *
+     * @return The size of the index range
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a word index to the set.
+     *
+     * @param index The word index
+     */
+    public void set(int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Removes a word index from the set.
+     *
+     * @param index The word index
+     */
+    public void clear(int index) {
+        words[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Checks if a word index is part of the set.
+     *
+     * @param index The word index
+     * @return true if the index is set
+     */
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Adds every word index of the range to the set.
+     */
+    public void setAll() {
+        Arrays.fill(words, 0, wordsInUse, -1L);
+        int tail = size & 63;
+        if (tail != 0) {
+            words[wordsInUse - 1] = (1L << tail) - 1;
+        }
+    }
+
+    /**
+     * Removes every word index from the set.
+     */
+    public void clearAll() {
+        Arrays.fill(words, 0, wordsInUse, 0L);
+    }
+
+    /**
+     * Checks if the set contains no word index.
+     *
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < wordsInUse; i++) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the word indices in the set.
+     *
+     * @return The number of set indices
+     */
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < wordsInUse; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the word indices that are part of both this and the other set.
+     *
+     * @param other A set over the same index range
+     * @return The size of the intersection
+     */
+    public int intersectionCount(CandidateSet other) {
+        long[] otherWords = other.words;
+        int count = 0;
+        for (int i = 0; i < wordsInUse; i++) {
+            count += Long.bitCount(words[i] & otherWords[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Keeps only the word indices that are also part of the other set.
+     *
+     * @param other A set over the same index range
+     */
+    public void and(CandidateSet other) {
+        long[] otherWords = other.words;
+        for (int i = 0; i < wordsInUse; i++) {
+            words[i] &= otherWords[i];
+        }
+    }
+
+    /**
+     * Removes every word index that is part of the other set.
+     *
+     * @param other A set over the same index range
+     */
+    public void andNot(CandidateSet other) {
+        long[] otherWords = other.words;
+        for (int i = 0; i < wordsInUse; i++) {
+            words[i] &= ~otherWords[i];
+        }
+    }
+
+    /**
+     * Gets the number of 64-bit words backing the set, the unit in which ranges of the set are processed.
+     *
+     * @return The number of bitset words
+     */
+    int wordCount() {
+        return wordsInUse;
+    }
+
+    /**
+     * Keeps the word indices of a range of bitset words that are part of every kept set and of no removed set.
+     * The sets are applied one after the other on the whole range, which stays in the cache for a short range.
+     *
+     * @param keep        Sets over the same index range whose indices are kept
+     * @param keepCount   The number of kept sets at the start of the array
+     * @param remove      Sets over the same index range whose indices are removed
+     * @param removeCount The number of removed sets at the start of the array
+     * @param fromWord    The first bitset word (inclusive)
+     * @param toWord      The last bitset word (exclusive)
+     * @return The number of word indices left in the range
+     */
+    int retain(CandidateSet[] keep, int keepCount, CandidateSet[] remove, int removeCount, int fromWord, int toWord) {
+        for (int j = 0; j < keepCount; j++) {
+            long[] otherWords = keep[j].words;
+            for (int i = fromWord; i < toWord; i++) {
+                words[i] &= otherWords[i];
+            }
+        }
+        for (int j = 0; j < removeCount; j++) {
+            long[] otherWords = remove[j].words;
+            for (int i = fromWord; i < toWord; i++) {
+                words[i] &= ~otherWords[i];
+            }
+        }
+        int count = 0;
+        for (int i = fromWord; i < toWord; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Keeps the word indices that are part of every kept set and of no removed set by testing index by index.
+     * Cheaper than {@link #retain(CandidateSet[], int, CandidateSet[], int, int, int)} when only few indices are set.
+     *
+     * @param keep        Sets over the same index range whose indices are kept
+     * @param keepCount   The number of kept sets at the start of the array
+     * @param remove      Sets over the same index range whose indices are removed
+     * @param removeCount The number of removed sets at the start of the array
+     * @return The number of word indices left
+     */
+    int retainSparse(CandidateSet[] keep, int keepCount, CandidateSet[] remove, int removeCount) {
+        int count = 0;
+        for (int index = nextSetBit(0); index >= 0; index = nextSetBit(index + 1)) {
+            boolean retained = true;
+            for (int i = 0; i < keepCount && retained; i++) {
+                retained = keep[i].get(index);
+            }
+            for (int i = 0; i < removeCount && retained; i++) {
+                retained = !remove[i].get(index);
+            }
+            if (retained) {
+                count++;
+            } else {
+                clear(index);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds up, for every other set, the indices of a range of bitset words it shares with this set.
+     *
+     * @param others   Sets over the same index range, null entries are skipped
+     * @param counts   The counts per other set, incremented in place
+     * @param fromWord The first bitset word (inclusive)
+     * @param toWord   The last bitset word (exclusive)
+     */
+    void addIntersectionCounts(CandidateSet[] others, int[] counts, int fromWord, int toWord) {
+        for (int j = 0; j < others.length; j++) {
+            if (others[j] == null) {
+                continue;
+            }
+            long[] otherWords = others[j].words;
+            int count = 0;
+            for (int i = fromWord; i < toWord; i++) {
+                count += Long.bitCount(words[i] & otherWords[i]);
+            }
+            counts[j] += count;
+        }
+    }
+
+    /**
+     * Adds up, for every other set, the indices it shares with this set by testing index by index.
+     * Cheaper than {@link #addIntersectionCounts(CandidateSet[], int[], int, int)} when only few indices are set.
+     *
+     * @param others Sets over the same index range, null entries are skipped
+     * @param counts The counts per other set, incremented in place
+     */
+    void addIntersectionCountsSparse(CandidateSet[] others, int[] counts) {
+        for (int index = nextSetBit(0); index >= 0; index = nextSetBit(index + 1)) {
+            for (int j = 0; j < others.length; j++) {
+                if (others[j] != null && others[j].get(index)) {
+                    counts[j]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of this set with the content of the other set.
+     *
+     * @param other A set over the same index range
+     */
+    public void copyFrom(CandidateSet other) {
+        System.arraycopy(other.words, 0, words, 0, wordsInUse);
+    }
+
+    /**
+     * Finds the next word index in the set.
+     *
+     * @param fromIndex The index to start searching from (inclusive)
+     * @return The next set index, or -1 if there is none
+     */
+    public int nextSetBit(int fromIndex) {
+        int wordIndex = fromIndex >>> 6;
+        if (wordIndex >= wordsInUse) {
+            return -1;
+        }
+        long word = words[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == wordsInUse) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * Finds the next word index that is part of both this and the other set.
+     * Intersects one bitset word at a time, so indices of only one of the sets are skipped 64 at once.
+     *
+     * @param other     A set over the same index range
+     * @param fromIndex The index to start searching from (inclusive)
+     * @return The next common index, or -1 if there is none
+     */
+    public int nextCommonBit(CandidateSet other, int fromIndex) {
+        int wordIndex = fromIndex >>> 6;
+        if (wordIndex >= wordsInUse) {
+            return -1;
+        }
+        long[] otherWords = other.words;
+        long word = words[wordIndex] & otherWords[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == wordsInUse) {
+                return -1;
+            }
+            word = words[wordIndex] & otherWords[wordIndex];
+        }
+    }
+
+    /**
+     * Finds the next word index that is part of this set but not of the other set,
+     * for example a word removed since a copy of the set was taken.
+     *
+     * @param other     A set over the same index range
+     * @param fromIndex The index to start searching from (inclusive)
+     * @return The next index only this set contains, or -1 if there is none
+     */
+    public int nextBitNotIn(CandidateSet other, int fromIndex) {
+        int wordIndex = fromIndex >>> 6;
+        if (wordIndex >= wordsInUse) {
+            return -1;
+        }
+        long[] otherWords = other.words;
+        long word = words[wordIndex] & ~otherWords[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == wordsInUse) {
+                return -1;
+            }
+            word = words[wordIndex] & ~otherWords[wordIndex];
+        }
+    }
+
+    /**
+     * Finds the word index with the given rank among the set indices.
+     *
+     * @param rank The zero-based rank, must be smaller than {@link #cardinality()}
+     * @return The word index, or -1 if the set has fewer indices
+     */
+    public int select(int rank) {
+        for (int i = 0; i < wordsInUse; i++) {
+            int count = Long.bitCount(words[i]);
+            if (rank < count) {
+                long word = words[i];
+                for (int j = 0; j < rank; j++) {
+                    word &= word - 1;
+                }
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            rank -= count;
+        }
+        return -1;
+    }
+}
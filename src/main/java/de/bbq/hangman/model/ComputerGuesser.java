@@ -1,165 +1,427 @@
 package de.bbq.hangman.model;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import de.bbq.hangman.metrics.HangmanMetrics;
+
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
 
 /**
  * Computer guesser for the Hangman game.
- * Implements logic for the computer to guess words intelligently.
+ * Implements logic for the computer to guess words intelligently: it follows the decision tree or the
+ * opening book of the dictionary and otherwise picks the letter shared by the most remaining candidates.
+ * <p>
+ * Everything that depends only on the dictionary (index, opening book, decision tree, fallback words) is
+ * shared by all guessers of that dictionary. The state of a game lives in a {@link GuessState} taken from a
+ * pool, so starting a new game, and after warm-up also a new guesser, allocates nothing.
  *
  * @author Christos Poulios
  * @version 1.0
  */
-public class ComputerGuesser {
-    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzäöüß";
+public class ComputerGuesser implements GuessStrategy {
     private static final String[] COMMON_LETTERS = {"m", "e", "k", "a", "h", "c", "z", "i", "u", "f", "r", "g", "d", "w", "s", "o", "l", "n", "b", "t"};
 
+    /** Index over the predefined words, shared by all guessers */
+    private static final DictionaryIndex DEFAULT_INDEX = new DictionaryIndex(WordProvider.predefinedWords());
+
+    /** Shared histograms of candidate set sizes and filter times */
+    private static final HangmanMetrics METRICS = HangmanMetrics.global();
+
+    private final DictionaryIndex index;
+    private final OpeningBook openingBook;
+    private final DecisionTree decisionTree;
     private final WordProvider wordProvider;
-    private final Random random;
-    private List<Character> availableLetters;
-    private List<String> possibleWords;
-    private int currentLetterIndex;
+    private final IntConsumer matchSampler = this::sampleMatch;
+    private GuessState state;
+    private int matchCount;
+    private int sampledMatch;
 
     /**
      * Constructs a new ComputerGuesser.
      */
     public ComputerGuesser() {
-        this.wordProvider = new WordProvider();
-        this.random = new Random();
-        initializeGuesser();
+        this(DEFAULT_INDEX);
+    }
+
+    /**
+     * Constructs a new ComputerGuesser that knows the words of the given index.
+     * The opening book of the index is taken from the memory cache and built if it is not there yet.
+     * If a {@link DecisionTree} was opened for the index, the guesser follows it instead of the book.
+     *
+     * @param index The dictionary index to guess from
+     */
+    public ComputerGuesser(DictionaryIndex index) {
+        this.index = index;
+        this.openingBook = OpeningBook.of(index);
+        this.decisionTree = DecisionTree.of(index);
+        this.wordProvider = WordProvider.of(index);
+        this.state = GuessState.acquire(index);
+    }
+
+    /**
+     * Gets the index over the predefined words the computer knows by default.
+     *
+     * @return The shared default dictionary index
+     */
+    public static DictionaryIndex defaultIndex() {
+        return DEFAULT_INDEX;
     }
 
     /**
      * Initializes the guesser for a new game.
      */
+    @Override
     public void initializeGuesser() {
-        this.availableLetters = new ArrayList<>();
-        for (char c : ALPHABET.toCharArray()) {
-            availableLetters.add(c);
+        if (state == null) {
+            state = GuessState.acquire(index);
+        } else {
+            state.reset();
+        }
+    }
+
+    /**
+     * Gives the game state back to the pool of the dictionary, for example when a session ends.
+     */
+    @Override
+    public void release() {
+        if (state != null) {
+            GuessState.release(index, state);
+            state = null;
         }
-        this.currentLetterIndex = 0;
-        this.possibleWords = getAllPossibleWords();
     }
 
     /**
      * Gets the next letter guess from the computer.
+     * Takes the letter from the decision tree or the opening book as long as the game follows it. Otherwise picks the
+     * letter contained in the most remaining candidate words, so the expected number of misses
+     * is minimal; the letter counts are kept up to date by the filter, so this is one pass over the alphabet.
+     * Falls back to common letters when no candidate is left.
      *
      * @return The next letter to guess
      */
+    @Override
     public char getNextLetterGuess() {
-        if (currentLetterIndex < COMMON_LETTERS.length) {
-            char guess = COMMON_LETTERS[currentLetterIndex].charAt(0);
-            currentLetterIndex++;
-            availableLetters.remove(Character.valueOf(guess));
-            return guess;
+        GuessState game = state;
+        int best = game.treeNode >= 0 ? decisionTree.letter(game.treeNode) : game.bookNode != null ? game.bookNode.letter() : -1;
+        if (best < 0 && game.bucket != null) {
+            best = LetterScorer.bestLetter(game.letterCounts, game.guessedLetters);
+        }
+        if (best >= 0) {
+            game.guessedLetters |= 1 << best;
+            game.lastGuess = best;
+            return Alphabet.letterAt(best);
+        }
+
+        while (game.currentLetterIndex < COMMON_LETTERS.length) {
+            char guess = COMMON_LETTERS[game.currentLetterIndex].charAt(0);
+            game.currentLetterIndex++;
+            int letter = Alphabet.indexOf(guess);
+            if ((game.guessedLetters & (1 << letter)) == 0) {
+                game.guessedLetters |= 1 << letter;
+                return guess;
+            }
         }
 
-        if (!availableLetters.isEmpty()) {
-            int randomIndex = random.nextInt(availableLetters.size());
-            return availableLetters.remove(randomIndex);
+        int remaining = ~game.guessedLetters & Alphabet.ALL;
+        if (remaining != 0) {
+            int letter = randomLetter(remaining);
+            game.guessedLetters |= 1 << letter;
+            return Alphabet.letterAt(letter);
         }
 
         return 'a'; // Fallback
     }
 
+    /**
+     * Picks a uniformly random letter from a letter mask.
+     *
+     * @param mask A non-empty letter mask
+     * @return The index of the chosen letter
+     */
+    private static int randomLetter(int mask) {
+        int skip = ThreadLocalRandom.current().nextInt(Integer.bitCount(mask));
+        for (int i = 0; i < skip; i++) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
     /**
      * Gets a word guess from the computer.
+     * With a {@link DawgWordList} dictionary the guess is drawn straight from a pattern search of the
+     * word graph, otherwise from the filtered candidates.
      *
-     * @param currentDisplay The current state of the word
+     * @param currentDisplay The current state of the word in canonical form, e.g. {@link HangmanModel#getCurrentDisplay()}
      * @return A word guess
      */
+    @Override
     public String getWordGuess(String currentDisplay) {
-        List<String> matchingWords = filterWordsByPattern(currentDisplay);
-        if (!matchingWords.isEmpty()) {
-            return matchingWords.get(random.nextInt(matchingWords.size()));
+        if (index.words() instanceof DawgWordList dawg) {
+            int match = randomMatch(dawg, currentDisplay);
+            return match >= 0 ? dawg.get(match) : wordProvider.getRandomWord();
+        }
+        filterWordsByPattern(currentDisplay);
+        int matching = state.hasCandidates ? state.candidateCount : 0;
+        if (matching > 0) {
+            return state.bucket.word(state.candidates.select(ThreadLocalRandom.current().nextInt(matching)));
         }
         return wordProvider.getRandomWord();
     }
 
+    /**
+     * Picks a uniformly random word matching the pattern with reservoir sampling over the matches.
+     *
+     * @param dawg    The word graph
+     * @param pattern The current word pattern in lower case
+     * @return The index of the chosen word, or -1 if no word matches
+     */
+    private int randomMatch(DawgWordList dawg, CharSequence pattern) {
+        matchCount = 0;
+        sampledMatch = -1;
+        dawg.forEachMatch(pattern, state.guessedLetters, matchSampler);
+        return sampledMatch;
+    }
+
+    /**
+     * Keeps a match of the pattern search with probability 1 / (number of matches so far).
+     */
+    private void sampleMatch(int match) {
+        matchCount++;
+        if (ThreadLocalRandom.current().nextInt(matchCount) == 0) {
+            sampledMatch = match;
+        }
+    }
+
     /**
      * Updates the possible words based on the current game state.
+     * Only the letters guessed since the last update are applied: a hit keeps the words with the
+     * letter at the revealed positions and removes those with the letter at a hidden position,
+     * a miss removes every word containing the letter. The candidate set only ever shrinks.
      *
-     * @param currentDisplay The current display of the word
+     * @param currentDisplay The current display of the word in lower case, e.g. {@link HangmanModel#getDisplay()}
      * @param guessedLetters Letters that have been guessed
      */
-    public void updatePossibleWords(String currentDisplay, List<Character> guessedLetters) {
-        possibleWords = filterWordsByPattern(currentDisplay);
-        possibleWords.removeIf(word -> !isWordCompatible(word, guessedLetters));
+    @Override
+    public void updatePossibleWords(CharSequence currentDisplay, List<Character> guessedLetters) {
+        long start = System.nanoTime();
+        updateCandidates(currentDisplay, guessedLetters);
+        METRICS.updateTime().record(System.nanoTime() - start);
+    }
+
+    private void updateCandidates(CharSequence currentDisplay, List<Character> guessedLetters) {
+        GuessState game = state;
+        for (int i = 0; i < guessedLetters.size(); i++) {
+            int index = Alphabet.indexOf(guessedLetters.get(i));
+            if (index >= 0) {
+                game.reportedLetters |= 1 << index;
+            }
+        }
+        game.guessedLetters |= game.reportedLetters;
+        if (game.bucket == null || game.bucket.length() != currentDisplay.length()) {
+            selectBucket(currentDisplay);
+        } else if (game.treeNode >= 0) {
+            followTree(currentDisplay);
+        } else if (game.bookNode != null) {
+            followBook(currentDisplay);
+        }
+        if (game.treeNode >= 0 || game.bookNode != null || !game.hasCandidates) {
+            // While the game follows the decision tree or the opening book, the candidates are not needed
+            return;
+        }
+
+        filterWordsByPattern(currentDisplay);
+        METRICS.candidateSetSize().record(game.candidateCount);
     }
 
     /**
-     * Filters words by the current pattern.
+     * Selects the length bucket for a new game and looks up its entry in the decision tree or the opening book.
      *
-     * @param pattern The current word pattern
-     * @return List of matching words
+     * @param pattern The initial word pattern in lower case
      */
-    private List<String> filterWordsByPattern(String pattern) {
-        List<String> matching = new ArrayList<>();
-        for (String word : possibleWords) {
-            if (matchesPattern(word.toLowerCase(), pattern.toLowerCase())) {
-                matching.add(word);
+    private void selectBucket(CharSequence pattern) {
+        GuessState game = state;
+        LengthBucket bucket = index.bucket(pattern.length());
+        game.bookNode = null;
+        game.treeNode = -1;
+        if (bucket == null) {
+            game.bucket = null;
+            game.hasCandidates = false;
+            return;
+        }
+        game.selectBucket(bucket);
+
+        int firstLetter = Alphabet.indexOf(pattern.charAt(0));
+        if (firstLetter >= 0 && pattern.length() <= Long.SIZE && game.guessedLetters == 0) {
+            if (decisionTree != null) {
+                game.treeNode = decisionTree.root(pattern.length(), firstLetter);
             }
+            if (game.treeNode < 0) {
+                game.bookNode = openingBook.root(pattern.length(), firstLetter);
+            }
+            game.bookLetters = 0;
         }
-        return matching;
     }
 
     /**
-     * Checks if a word matches the current pattern.
+     * Moves along the opening book after the book's guess has been answered.
+     * Leaves the book if other letters were guessed or the reveal pattern is not in the book.
      *
-     * @param word The word to check
-     * @param pattern The pattern to match against
-     * @return true if the word matches the pattern
+     * @param pattern The current word pattern in lower case
      */
-    private boolean matchesPattern(String word, String pattern) {
-        if (word.length() != pattern.length()) {
-            return false;
+    private void followBook(CharSequence pattern) {
+        GuessState game = state;
+        int letter = game.bookNode.letter();
+        if (game.lastGuess != letter || game.guessedLetters != (game.bookLetters | (1 << letter))) {
+            game.bookNode = null;
+            return;
         }
+        game.bookLetters |= 1 << letter;
+        game.bookNode = game.bookNode.child(revealMask(pattern, letter));
+    }
 
-        for (int i = 0; i < word.length(); i++) {
-            char wordChar = word.charAt(i);
-            char patternChar = pattern.charAt(i);
+    /**
+     * Moves along the decision tree after the tree's guess has been answered.
+     * Leaves the tree if other letters were guessed or no dictionary word produces the reveal pattern.
+     *
+     * @param pattern The current word pattern in lower case
+     */
+    private void followTree(CharSequence pattern) {
+        GuessState game = state;
+        int letter = decisionTree.letter(game.treeNode);
+        if (game.lastGuess != letter || game.guessedLetters != (game.bookLetters | (1 << letter))) {
+            game.treeNode = -1;
+            return;
+        }
+        game.bookLetters |= 1 << letter;
+        game.treeNode = decisionTree.child(game.treeNode, revealMask(pattern, letter));
+    }
 
-            if (patternChar != '_' && patternChar != wordChar) {
-                return false;
+    /**
+     * Computes the positions after the first at which a letter is revealed in a pattern.
+     *
+     * @param pattern The current word pattern in lower case
+     * @param letter  The letter index
+     * @return The reveal mask, 0 for a miss
+     */
+    private static long revealMask(CharSequence pattern, int letter) {
+        char letterChar = Alphabet.letterAt(letter);
+        long revealMask = 0;
+        for (int position = 1; position < pattern.length(); position++) {
+            if (pattern.charAt(position) == letterChar) {
+                revealMask |= 1L << position;
             }
         }
-        return true;
+        return revealMask;
     }
 
     /**
-     * Checks if a word is compatible with guessed letters.
+     * Brings the candidates up to date with the current pattern.
+     * After a new bucket or after leaving the decision tree or the opening book, the whole pattern is
+     * matched once; afterwards only the letters reported since the last update are applied, all of them
+     * in one pass of the {@link CandidateFilter}.
      *
-     * @param word The word to check
-     * @param guessedLetters Letters that have been guessed
-     * @return true if the word is compatible
+     * @param pattern The current word pattern in lower case
      */
-    private boolean isWordCompatible(String word, List<Character> guessedLetters) {
-        for (char letter : guessedLetters) {
-            if (word.toLowerCase().contains(String.valueOf(letter))) {
-                return true;
+    private void filterWordsByPattern(CharSequence pattern) {
+        GuessState game = state;
+        if (game.bucket == null || game.bucket.length() != pattern.length()) {
+            selectBucket(pattern);
+            game.bookNode = null;
+            game.treeNode = -1;
+            if (game.bucket == null) {
+                return;
             }
         }
-        return guessedLetters.isEmpty();
+        long start = System.nanoTime();
+        if (game.candidatesStale) {
+            game.candidates.setAll();
+            game.candidateCount = game.bucket.retainMatching(pattern, game.candidates, game.keep);
+            countLetters(game);
+            game.appliedLetters = 0;
+            game.candidatesStale = false;
+        }
+        int pending = game.reportedLetters & ~game.appliedLetters;
+        if (pending != 0) {
+            int keepCount = 0;
+            int removeCount = 0;
+            for (; pending != 0; pending &= pending - 1) {
+                int letter = Integer.numberOfTrailingZeros(pending);
+                char letterChar = Alphabet.letterAt(letter);
+                if (!isRevealed(pattern, letterChar)) {
+                    // A miss removes every word containing the letter
+                    game.remove[removeCount++] = game.bucket.letterPosting(letter);
+                    continue;
+                }
+                // A hit keeps the words with the letter at the revealed positions and removes those with it elsewhere
+                for (int position = 1; position < pattern.length(); position++) {
+                    if (pattern.charAt(position) == letterChar) {
+                        game.keep[keepCount++] = game.bucket.positionPosting(position, letter);
+                    } else {
+                        game.remove[removeCount++] = game.bucket.positionPosting(position, letter);
+                    }
+                }
+            }
+            int before = game.candidateCount;
+            game.previous.copyFrom(game.candidates);
+            game.candidateCount = CandidateFilter.retain(game.candidates, game.candidateCount,
+                    game.keep, keepCount, game.remove, removeCount);
+            updateLetterCounts(game, before - game.candidateCount);
+        }
+        game.appliedLetters = game.reportedLetters;
+        METRICS.filterTime().record(System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the candidates containing each letter from scratch, through the {@link CandidateFilter}.
+     *
+     * @param game The game state whose letter counts are rebuilt
+     */
+    private static void countLetters(GuessState game) {
+        for (int letter = 0; letter < Alphabet.SIZE; letter++) {
+            game.postings[letter] = game.bucket.letterPosting(letter);
+        }
+        CandidateFilter.intersectionCounts(game.candidates, game.candidateCount, game.postings, game.letterCounts);
     }
 
     /**
-     * Gets all possible words from the word provider.
+     * Brings the letter counts up to date after a filter pass. If fewer words were removed than are
+     * left, the letters of the removed words are subtracted, which costs a few operations per removed word;
+     * otherwise counting the remaining words from scratch is cheaper.
      *
-     * @return List of all possible words
+     * @param game    The game state after the filter pass, with the candidates before it in {@link GuessState#previous}
+     * @param removed The number of words the pass removed
      */
-    private List<String> getAllPossibleWords() {
-        List<String> words = new ArrayList<>();
-        String[] commonWords = {
-                "Haus", "Baum", "Auto", "Tisch", "Buch", "Katze", "Hund", "Maus",
-                "Ball", "Stuhl", "Fenster", "Garten", "Schule", "Bleistift",
-                "Telefon", "Computer", "Zeitung", "Kühlschrank", "Schlüssel",
-                "Brille", "Fahrrad", "Apfel", "Banane", "Schokolade", "Kaffee"
-        };
+    private static void updateLetterCounts(GuessState game, int removed) {
+        if (removed == 0) {
+            return;
+        }
+        if (removed > game.candidateCount) {
+            countLetters(game);
+            return;
+        }
+        int[] letterCounts = game.letterCounts;
+        for (int i = game.previous.nextBitNotIn(game.candidates, 0); i >= 0;
+             i = game.previous.nextBitNotIn(game.candidates, i + 1)) {
+            for (int letters = game.bucket.letterMask(i); letters != 0; letters &= letters - 1) {
+                letterCounts[Integer.numberOfTrailingZeros(letters)]--;
+            }
+        }
+    }
 
-        Collections.addAll(words, commonWords);
-        return words;
+    /**
+     * Checks if a letter is revealed at a position after the first.
+     *
+     * @param pattern    The current word pattern in lower case
+     * @param letterChar The letter
+     * @return true if the pattern shows the letter after its first position
+     */
+    private static boolean isRevealed(CharSequence pattern, char letterChar) {
+        for (int position = 1; position < pattern.length(); position++) {
+            if (pattern.charAt(position) == letterChar) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -167,7 +429,8 @@ public class ComputerGuesser {
      *
      * @return true if more letters are available
      */
+    @Override
     public boolean hasMoreLetters() {
-        return !availableLetters.isEmpty() || currentLetterIndex < COMMON_LETTERS.length;
+        return state.guessedLetters != Alphabet.ALL;
     }
 }
@@ -0,0 +1,454 @@
+package de.bbq.hangman.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Word list stored as a minimized DAWG (directed acyclic word graph).
+ * German words share long prefixes and, through compounds, long suffixes; the DAWG stores every
+ * shared prefix and every shared suffix only once, so a large dictionary needs a fraction of
+ * the memory of a String per word. This saves memory on the word list only: a {@link DictionaryIndex}
+ * over the graph still builds its buckets, letter postings and masks, which take far more memory than
+ * the words, and reading the words for the index walks the graph once per word.
+ * <p>
+ * Every node knows how many words lie below it, so the words have a rank in sorted order: a word is
+ * found by its index for uniform random sampling and {@link WordList#get(int)}, and pattern searches
+ * report the indices of their matches. Every node also knows which suffix lengths lie below it, so
+ * pattern searches never follow a branch that cannot end at the pattern's length.
+ * <p>
+ * The file format is
+ * <pre>
+ * int magic, int version, int nodeCount, int edgeCount, int wordCount, int maxLength
+ * int[nodeCount + 1] first edge per node, int[nodeCount] words below each node,
+ * long[nodeCount] suffix length mask per node, long[(nodeCount + 63) / 64] terminal nodes,
+ * char[edgeCount] edge labels, int[edgeCount] edge targets
+ * </pre>
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class DawgWordList implements WordList {
+    static final int MAGIC = 0x484D4447; // "HMDG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int ROOT = 0;
+
+    private final int[] firstEdge;
+    private final int[] wordCounts;
+    private final long[] suffixLengths;
+    private final long[] terminals;
+    private final char[] labels;
+    private final int[] targets;
+    private final int maxLength;
+
+    private DawgWordList(int[] firstEdge, int[] wordCounts, long[] suffixLengths, long[] terminals,
+                         char[] labels, int[] targets, int maxLength) {
+        this.firstEdge = firstEdge;
+        this.wordCounts = wordCounts;
+        this.suffixLengths = suffixLengths;
+        this.terminals = terminals;
+        this.labels = labels;
+        this.targets = targets;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Builds a DAWG from raw words. The words go through the {@link WordNormalizer} pipeline first.
+     *
+     * @param words The raw words
+     * @return The minimized word graph
+     */
+    public static DawgWordList build(Collection<String> words) {
+        String[] sorted = WordNormalizer.canonicalize(words);
+        Arrays.sort(sorted);
+        return new Builder().build(sorted);
+    }
+
+    /**
+     * Builds a DAWG from raw words and writes it into a new dictionary file.
+     *
+     * @param file  The file to write
+     * @param words The raw words
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, List<String> words) throws IOException {
+        build(words).save(file);
+    }
+
+    /**
+     * Reads a DAWG dictionary file.
+     *
+     * @param file The dictionary file
+     * @return The word graph
+     * @throws IOException if the file cannot be read or has the wrong format
+     */
+    public static DawgWordList open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a DAWG dictionary file: " + file);
+            }
+            int nodeCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            buffer.getInt(); // word count, equal to the count of the root
+            int maxLength = buffer.getInt();
+
+            int[] firstEdge = new int[nodeCount + 1];
+            int[] wordCounts = new int[nodeCount];
+            long[] suffixLengths = new long[nodeCount];
+            long[] terminals = new long[(nodeCount + 63) / 64];
+            char[] labels = new char[edgeCount];
+            int[] targets = new int[edgeCount];
+            buffer.asIntBuffer().get(firstEdge);
+            buffer.position(buffer.position() + firstEdge.length * Integer.BYTES);
+            buffer.asIntBuffer().get(wordCounts);
+            buffer.position(buffer.position() + wordCounts.length * Integer.BYTES);
+            buffer.asLongBuffer().get(suffixLengths);
+            buffer.position(buffer.position() + suffixLengths.length * Long.BYTES);
+            buffer.asLongBuffer().get(terminals);
+            buffer.position(buffer.position() + terminals.length * Long.BYTES);
+            buffer.asCharBuffer().get(labels);
+            buffer.position(buffer.position() + labels.length * Character.BYTES);
+            buffer.asIntBuffer().get(targets);
+            return new DawgWordList(firstEdge, wordCounts, suffixLengths, terminals, labels, targets, maxLength);
+        }
+    }
+
+    /**
+     * Writes this DAWG into a dictionary file.
+     *
+     * @param file The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(wordCounts.length);
+            out.writeInt(labels.length);
+            out.writeInt(size());
+            out.writeInt(maxLength);
+            for (int value : firstEdge) {
+                out.writeInt(value);
+            }
+            for (int value : wordCounts) {
+                out.writeInt(value);
+            }
+            for (long value : suffixLengths) {
+                out.writeLong(value);
+            }
+            for (long value : terminals) {
+                out.writeLong(value);
+            }
+            for (char value : labels) {
+                out.writeChar(value);
+            }
+            for (int value : targets) {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return wordCounts.length > 0 ? wordCounts[ROOT] : 0;
+    }
+
+    @Override
+    public int maxLength() {
+        return maxLength;
+    }
+
+    @Override
+    public String get(int index) {
+        char[] chars = new char[maxLength];
+        return new String(chars, 0, getChars(index, chars));
+    }
+
+    @Override
+    public int getChars(int index, char[] target) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int node = ROOT;
+        int length = 0;
+        int rank = index;
+        while (true) {
+            if (isTerminal(node)) {
+                if (rank == 0) {
+                    return length;
+                }
+                rank--;
+            }
+            for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+                int count = wordCounts[targets[edge]];
+                if (rank < count) {
+                    target[length++] = labels[edge];
+                    node = targets[edge];
+                    break;
+                }
+                rank -= count;
+            }
+        }
+    }
+
+    /**
+     * Checks if a word is in the dictionary.
+     *
+     * @param word The word in canonical form
+     * @return true if the dictionary contains the word
+     */
+    public boolean contains(CharSequence word) {
+        int node = ROOT;
+        for (int i = 0; i < word.length(); i++) {
+            node = child(node, word.charAt(i));
+            if (node < 0) {
+                return false;
+            }
+        }
+        return isTerminal(node);
+    }
+
+    /**
+     * Finds all words that match a Hangman pattern.
+     * A revealed character of the pattern must appear at its position; at a hidden position
+     * ({@code '_'}) any character except the excluded letters may appear.
+     *
+     * @param pattern         The pattern, e.g. {@link HangmanModel#getDisplay()}
+     * @param excludedLetters Mask of the {@link Alphabet} letters that cannot be at a hidden position
+     * @param action          Receives the index of every matching word, in ascending order
+     */
+    public void forEachMatch(CharSequence pattern, int excludedLetters, IntConsumer action) {
+        if (size() > 0) {
+            match(ROOT, 0, 0, pattern, excludedLetters, action);
+        }
+    }
+
+    private void match(int node, int depth, int rank, CharSequence pattern, int excludedLetters, IntConsumer action) {
+        int remaining = pattern.length() - depth;
+        if (remaining < Long.SIZE && (suffixLengths[node] & (1L << remaining)) == 0) {
+            return;
+        }
+        if (remaining == 0) {
+            action.accept(rank);
+            return;
+        }
+        if (isTerminal(node)) {
+            rank++;
+        }
+        char wanted = pattern.charAt(depth);
+        for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+            char label = labels[edge];
+            boolean allowed;
+            if (wanted == '_') {
+                int letter = Alphabet.indexOf(label);
+                allowed = letter < 0 || (excludedLetters & (1 << letter)) == 0;
+            } else {
+                allowed = label == wanted;
+            }
+            if (allowed) {
+                match(targets[edge], depth + 1, rank, pattern, excludedLetters, action);
+            }
+            rank += wordCounts[targets[edge]];
+        }
+    }
+
+    /**
+     * Gets an estimate of the heap memory used by the graph.
+     *
+     * @return The size of the arrays in bytes
+     */
+    public long memoryBytes() {
+        return (long) firstEdge.length * Integer.BYTES + (long) wordCounts.length * Integer.BYTES
+                + (long) suffixLengths.length * Long.BYTES + (long) terminals.length * Long.BYTES
+                + (long) labels.length * Character.BYTES + (long) targets.length * Integer.BYTES;
+    }
+
+    private int child(int node, char label) {
+        for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+            if (labels[edge] == label) {
+                return targets[edge];
+            }
+        }
+        return -1;
+    }
+
+    private boolean isTerminal(int node) {
+        return (terminals[node >>> 6] & (1L << node)) != 0;
+    }
+
+    /**
+     * Incremental construction of the minimized graph from sorted words (Daciuk et al.).
+     * After each word, the part of the previous word that no later word can share is replaced by
+     * equivalent nodes already in the register, so the graph is minimal at all times.
+     */
+    private static final class Builder {
+        private final Map<BuildNode, BuildNode> register = new HashMap<>();
+        private final BuildNode root = new BuildNode();
+
+        private DawgWordList build(String[] sorted) {
+            List<BuildNode> path = new ArrayList<>();
+            path.add(root);
+            String previous = "";
+            int maxLength = 0;
+            for (String word : sorted) {
+                int common = 0;
+                while (common < previous.length() && common < word.length()
+                        && previous.charAt(common) == word.charAt(common)) {
+                    common++;
+                }
+                minimize(path, common);
+                for (int i = common; i < word.length(); i++) {
+                    BuildNode next = new BuildNode();
+                    path.get(i).addChild(word.charAt(i), next);
+                    path.add(next);
+                }
+                path.get(word.length()).terminal = true;
+                previous = word;
+                maxLength = Math.max(maxLength, word.length());
+            }
+            minimize(path, 0);
+            root.seal();
+            return freeze(maxLength);
+        }
+
+        /**
+         * Replaces the nodes of the path below the given depth by registered equivalents.
+         */
+        private void minimize(List<BuildNode> path, int depth) {
+            for (int i = path.size() - 1; i > depth; i--) {
+                BuildNode node = path.remove(i);
+                node.seal();
+                BuildNode registered = register.putIfAbsent(node, node);
+                if (registered != null) {
+                    path.get(i - 1).replaceLastChild(registered);
+                }
+            }
+        }
+
+        /**
+         * Numbers the nodes depth first from the root and copies them into flat arrays.
+         */
+        private DawgWordList freeze(int maxLength) {
+            Map<BuildNode, Integer> ids = new IdentityHashMap<>();
+            List<BuildNode> order = new ArrayList<>();
+            number(root, ids, order);
+
+            int nodeCount = order.size();
+            int edgeCount = 0;
+            for (BuildNode node : order) {
+                edgeCount += node.childCount;
+            }
+            int[] firstEdge = new int[nodeCount + 1];
+            int[] wordCounts = new int[nodeCount];
+            long[] suffixLengths = new long[nodeCount];
+            long[] terminals = new long[(nodeCount + 63) / 64];
+            char[] labels = new char[edgeCount];
+            int[] targets = new int[edgeCount];
+            int edge = 0;
+            for (int id = 0; id < nodeCount; id++) {
+                BuildNode node = order.get(id);
+                firstEdge[id] = edge;
+                wordCounts[id] = node.wordCount;
+                suffixLengths[id] = node.suffixLengths;
+                if (node.terminal) {
+                    terminals[id >>> 6] |= 1L << id;
+                }
+                for (int i = 0; i < node.childCount; i++) {
+                    labels[edge] = node.labels[i];
+                    targets[edge] = ids.get(node.children[i]);
+                    edge++;
+                }
+            }
+            firstEdge[nodeCount] = edge;
+            return new DawgWordList(firstEdge, wordCounts, suffixLengths, terminals, labels, targets, maxLength);
+        }
+
+        private static void number(BuildNode node, Map<BuildNode, Integer> ids, List<BuildNode> order) {
+            if (ids.containsKey(node)) {
+                return;
+            }
+            ids.put(node, order.size());
+            order.add(node);
+            for (int i = 0; i < node.childCount; i++) {
+                number(node.children[i], ids, order);
+            }
+        }
+    }
+
+    /**
+     * Node of the graph under construction. Once sealed, its children never change, and two sealed
+     * nodes are equal if they have the same terminal flag and the same labelled children.
+     */
+    private static final class BuildNode {
+        private char[] labels = new char[2];
+        private BuildNode[] children = new BuildNode[2];
+        private int childCount;
+        private boolean terminal;
+        private int wordCount;
+        private long suffixLengths;
+        private int hash;
+
+        private void addChild(char label, BuildNode child) {
+            if (childCount == labels.length) {
+                labels = Arrays.copyOf(labels, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            labels[childCount] = label;
+            children[childCount++] = child;
+        }
+
+        private void replaceLastChild(BuildNode child) {
+            children[childCount - 1] = child;
+        }
+
+        /**
+         * Fixes the node's derived values once its children are final.
+         */
+        private void seal() {
+            wordCount = terminal ? 1 : 0;
+            suffixLengths = terminal ? 1 : 0;
+            int result = terminal ? 1 : 0;
+            for (int i = 0; i < childCount; i++) {
+                wordCount += children[i].wordCount;
+                suffixLengths |= children[i].suffixLengths << 1;
+                result = 31 * (31 * result + labels[i]) + System.identityHashCode(children[i]);
+            }
+            hash = result;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof BuildNode node) || node.terminal != terminal || node.childCount != childCount) {
+                return false;
+            }
+            for (int i = 0; i < childCount; i++) {
+                if (node.labels[i] != labels[i] || node.children[i] != children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package de.bbq.hangman.model;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Complete guess decision tree of a dictionary, read from a memory-mapped file.
+ * Every node holds the letter to guess and one edge per reveal pattern that letter can produce for
+ * the dictionary words in its branch. Walking the tree replaces all candidate filtering: each turn is
+ * a lookup of the revealed positions among the few edges of the current node.
+ * <p>
+ * The file is written by {@link DecisionTreeCompiler} and has the layout
+ * <pre>
+ * int magic, int version, long fingerprint, int nodeCount, int edgeCount
+ * int[(64 + 1) * 30] root node per (length, first letter), -1 if none
+ * nodeCount x (int firstEdge, int letter &lt;&lt; 24 | edgeCount)
+ * edgeCount x (long revealMask, int child node or -1)
+ * </pre>
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class DecisionTree {
+    static final int MAGIC = 0x484D4454; // "HMDT"
+    static final int VERSION = 1;
+    static final int MAX_LENGTH = Long.SIZE;
+    static final int ROOT_COUNT = (MAX_LENGTH + 1) * Alphabet.SIZE;
+    static final int HEADER_SIZE = 24;
+    static final int NODE_SIZE = 8;
+    static final int EDGE_SIZE = 12;
+
+    /** Trees opened for a dictionary index */
+    private static final Map<DictionaryIndex, DecisionTree> OPENED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final MappedByteBuffer buffer;
+    private final long fingerprint;
+    private final int nodesStart;
+    private final int edgesStart;
+
+    private DecisionTree(MappedByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a decision tree file");
+        }
+        this.buffer = buffer;
+        this.fingerprint = buffer.getLong(8);
+        this.nodesStart = HEADER_SIZE + ROOT_COUNT * Integer.BYTES;
+        this.edgesStart = nodesStart + buffer.getInt(16) * NODE_SIZE;
+    }
+
+    /**
+     * Maps a decision tree file and makes it available to all guessers of the given index.
+     *
+     * @param file  The decision tree file
+     * @param index The dictionary index the tree was compiled for
+     * @return The decision tree
+     * @throws IOException if the file cannot be read or was compiled for another dictionary
+     */
+    public static DecisionTree open(Path file, DictionaryIndex index) throws IOException {
+        DecisionTree tree;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            tree = new DecisionTree(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        if (tree.fingerprint != index.fingerprint()) {
+            throw new IOException("Decision tree was compiled for another dictionary: " + file);
+        }
+        OPENED.put(index, tree);
+        return tree;
+    }
+
+    /**
+     * Gets the decision tree opened for a dictionary index.
+     *
+     * @param index The dictionary index
+     * @return The decision tree, or null if none was opened
+     */
+    public static DecisionTree of(DictionaryIndex index) {
+        return OPENED.get(index);
+    }
+
+    /**
+     * Gets the first node for a new game.
+     *
+     * @param length      The length of the word
+     * @param firstLetter The index of the revealed first letter
+     * @return The node of the first guess, or -1 if the tree has no entry for the game
+     */
+    public int root(int length, int firstLetter) {
+        if (length > MAX_LENGTH) {
+            return -1;
+        }
+        return buffer.getInt(HEADER_SIZE + (length * Alphabet.SIZE + firstLetter) * Integer.BYTES);
+    }
+
+    /**
+     * Gets the letter to guess at a node.
+     *
+     * @param node The node
+     * @return The letter index
+     */
+    public int letter(int node) {
+        return buffer.getInt(nodesStart + node * NODE_SIZE + 4) >>> 24;
+    }
+
+    /**
+     * Gets the node that follows a reveal pattern of a node's letter.
+     *
+     * @param node       The current node
+     * @param revealMask The positions at which the letter was revealed, 0 for a miss
+     * @return The next node, or -1 if the word is complete or no dictionary word produces the pattern
+     */
+    public int child(int node, long revealMask) {
+        int nodeOffset = nodesStart + node * NODE_SIZE;
+        int low = buffer.getInt(nodeOffset);
+        int high = low + (buffer.getInt(nodeOffset + 4) & 0xFFFFFF) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long mask = buffer.getLong(edgesStart + middle * EDGE_SIZE);
+            if (mask < revealMask) {
+                low = middle + 1;
+            } else if (mask > revealMask) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(edgesStart + middle * EDGE_SIZE + Long.BYTES);
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,243 @@
+package de.bbq.hangman.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Offline compiler for the {@link DecisionTree} of a dictionary.
+ * Plays every branch of the guessing game at once: at each node it picks the letter contained in most
+ * candidates, exactly like {@link LetterScorer}, splits the candidates by the positions that letter
+ * reveals and continues with every split until all words are fully revealed.
+ * <p>
+ * Candidates are kept as ranges of a word id array that is partitioned in place, so the cost of a
+ * node is proportional to its own candidates and not to the size of the dictionary.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class DecisionTreeCompiler {
+    private int[] nodeFirstEdge = new int[1024];
+    private int[] nodeInfo = new int[1024];
+    private int nodeCount;
+    private long[] edgeMasks = new long[1024];
+    private int[] edgeChildren = new int[1024];
+    private int edgeCount;
+
+    /** Letter index per position of every word of the current bucket, -1 outside the alphabet */
+    private byte[] letters;
+    /** Mask of the letters at guessable positions of every word of the current bucket */
+    private int[] letterMasks;
+    private int length;
+
+    private DecisionTreeCompiler() {
+    }
+
+    /**
+     * Compiles the decision tree of a dictionary index into a file.
+     *
+     * @param index The dictionary index
+     * @param file  The file to write
+     * @throws IOException if the file cannot be written or the tree is too large to be mapped
+     */
+    public static void compile(DictionaryIndex index, Path file) throws IOException {
+        DecisionTreeCompiler compiler = new DecisionTreeCompiler();
+        int[] roots = new int[DecisionTree.ROOT_COUNT];
+        Arrays.fill(roots, -1);
+        for (int length = 1; length <= DecisionTree.MAX_LENGTH; length++) {
+            LengthBucket bucket = index.bucket(length);
+            if (bucket != null) {
+                compiler.compileBucket(bucket, roots);
+            }
+        }
+        compiler.write(file, index.fingerprint(), roots);
+    }
+
+    /**
+     * Builds the subtrees of all first letters of a bucket.
+     *
+     * @param bucket The bucket
+     * @param roots  The root table to fill
+     */
+    private void compileBucket(LengthBucket bucket, int[] roots) {
+        length = bucket.length();
+        int size = bucket.size();
+        letters = new byte[size * length];
+        letterMasks = new int[size];
+        char[] word = new char[length];
+        int[] firstLetterCounts = new int[Alphabet.SIZE + 1];
+        for (int i = 0; i < size; i++) {
+            bucket.wordChars(i, word);
+            for (int position = 0; position < length; position++) {
+                int letter = Alphabet.indexOf(word[position]);
+                letters[i * length + position] = (byte) letter;
+                if (letter >= 0 && position > 0) {
+                    letterMasks[i] |= 1 << letter;
+                }
+            }
+            firstLetterCounts[letters[i * length] + 1]++;
+        }
+
+        // Group the word ids by first letter, words starting outside the alphabet come first and are skipped
+        int[] starts = new int[Alphabet.SIZE + 2];
+        for (int letter = 0; letter <= Alphabet.SIZE; letter++) {
+            starts[letter + 1] = starts[letter] + firstLetterCounts[letter];
+        }
+        int[] ids = new int[size];
+        int[] next = starts.clone();
+        for (int i = 0; i < size; i++) {
+            ids[next[letters[i * length] + 1]++] = i;
+        }
+        for (int firstLetter = 0; firstLetter < Alphabet.SIZE; firstLetter++) {
+            int from = starts[firstLetter + 1];
+            int to = starts[firstLetter + 2];
+            if (from < to) {
+                roots[length * Alphabet.SIZE + firstLetter] = buildNode(ids, from, to, 0);
+            }
+        }
+    }
+
+    /**
+     * Builds the node for the candidates ids[from, to) and all nodes below it.
+     *
+     * @param ids      The word ids, partitioned in place
+     * @param from     The first candidate (inclusive)
+     * @param to       The last candidate (exclusive)
+     * @param excluded Letters already guessed on the path to this node
+     * @return The node, or -1 if all candidates are fully revealed
+     */
+    private int buildNode(int[] ids, int from, int to, int excluded) {
+        int letter = bestLetter(ids, from, to, excluded);
+        if (letter < 0) {
+            return -1;
+        }
+
+        int count = to - from;
+        long[] masks = new long[count];
+        for (int i = 0; i < count; i++) {
+            masks[i] = revealMask(ids[from + i], letter);
+        }
+        long[] distinct = masks.clone();
+        Arrays.sort(distinct);
+        int splitCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[splitCount++] = distinct[i];
+            }
+        }
+
+        // Counting sort of the candidates by split, so every split becomes a contiguous range
+        int[] splitStarts = new int[splitCount + 1];
+        int[] splitOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            splitOf[i] = Arrays.binarySearch(distinct, 0, splitCount, masks[i]);
+            splitStarts[splitOf[i] + 1]++;
+        }
+        for (int split = 0; split < splitCount; split++) {
+            splitStarts[split + 1] += splitStarts[split];
+        }
+        int[] sorted = new int[count];
+        int[] next = Arrays.copyOf(splitStarts, splitCount);
+        for (int i = 0; i < count; i++) {
+            sorted[next[splitOf[i]]++] = ids[from + i];
+        }
+        System.arraycopy(sorted, 0, ids, from, count);
+
+        int node = addNode(letter, splitCount);
+        int firstEdge = nodeFirstEdge[node];
+        for (int split = 0; split < splitCount; split++) {
+            edgeMasks[firstEdge + split] = distinct[split];
+        }
+        for (int split = 0; split < splitCount; split++) {
+            int child = buildNode(ids, from + splitStarts[split], from + splitStarts[split + 1], excluded | (1 << letter));
+            edgeChildren[firstEdge + split] = child;
+        }
+        return node;
+    }
+
+    /**
+     * Finds the letter contained in most candidates, preferring the lower letter index on ties.
+     */
+    private int bestLetter(int[] ids, int from, int to, int excluded) {
+        int[] counts = new int[Alphabet.SIZE];
+        for (int i = from; i < to; i++) {
+            int mask = letterMasks[ids[i]] & ~excluded;
+            while (mask != 0) {
+                counts[Integer.numberOfTrailingZeros(mask)]++;
+                mask &= mask - 1;
+            }
+        }
+        int best = -1;
+        for (int letter = 0; letter < Alphabet.SIZE; letter++) {
+            if (counts[letter] > 0 && (best < 0 || counts[letter] > counts[best])) {
+                best = letter;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Computes the positions at which a letter is revealed in a word.
+     */
+    private long revealMask(int word, int letter) {
+        long mask = 0;
+        int base = word * length;
+        for (int position = 1; position < length; position++) {
+            if (letters[base + position] == letter) {
+                mask |= 1L << position;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Appends a node with room for its edges.
+     */
+    private int addNode(int letter, int edges) {
+        if (nodeCount == nodeFirstEdge.length) {
+            nodeFirstEdge = Arrays.copyOf(nodeFirstEdge, nodeCount * 2);
+            nodeInfo = Arrays.copyOf(nodeInfo, nodeCount * 2);
+        }
+        if (edgeCount + edges > edgeMasks.length) {
+            int capacity = Math.max(edgeMasks.length * 2, edgeCount + edges);
+            edgeMasks = Arrays.copyOf(edgeMasks, capacity);
+            edgeChildren = Arrays.copyOf(edgeChildren, capacity);
+        }
+        nodeFirstEdge[nodeCount] = edgeCount;
+        nodeInfo[nodeCount] = letter << 24 | edges;
+        edgeCount += edges;
+        return nodeCount++;
+    }
+
+    /**
+     * Writes the compiled tree in the format read by {@link DecisionTree}.
+     */
+    private void write(Path file, long fingerprint, int[] roots) throws IOException {
+        long size = DecisionTree.HEADER_SIZE + (long) roots.length * Integer.BYTES
+                + (long) nodeCount * DecisionTree.NODE_SIZE + (long) edgeCount * DecisionTree.EDGE_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Decision tree too large to be mapped: " + size + " bytes");
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(DecisionTree.MAGIC);
+            out.writeInt(DecisionTree.VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(nodeCount);
+            out.writeInt(edgeCount);
+            for (int root : roots) {
+                out.writeInt(root);
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                out.writeInt(nodeFirstEdge[node]);
+                out.writeInt(nodeInfo[node]);
+            }
+            for (int edge = 0; edge < edgeCount; edge++) {
+                out.writeLong(edgeMasks[edge]);
+                out.writeInt(edgeChildren[edge]);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package de.bbq.hangman.model;
+
+import java.util.stream.IntStream;
+
+/**
+ * Immutable index over a shared word list.
+ * Orders the words by length and groups them into {@link LengthBucket}s, so the guesser only
+ * ever looks at words of the right length and resolves patterns with bitset intersections.
+ * The index reads words as chars and never keeps a String per word.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class DictionaryIndex {
+    /** Number of words from which the length buckets are built in parallel */
+    private static final int PARALLEL_BUILD_THRESHOLD = 100_000;
+
+    private final WordList words;
+    private final int[] order;
+    private final LengthBucket[] buckets;
+    private final int largestBucketSize;
+    private volatile long fingerprint;
+
+    /**
+     * Constructs an index over the given words.
+     *
+     * @param words The words to index, already in canonical form (see {@link WordNormalizer})
+     */
+    public DictionaryIndex(WordList words) {
+        this.words = words;
+        int maxLength = words.maxLength();
+        char[] chars = new char[maxLength];
+        int[] lengths = new int[words.size()];
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = words.getChars(i, chars);
+        }
+
+        // Counting sort by length keeps each bucket a contiguous range of the order array
+        int[] starts = new int[maxLength + 2];
+        for (int length : lengths) {
+            starts[length + 1]++;
+        }
+        for (int length = 1; length < starts.length; length++) {
+            starts[length] += starts[length - 1];
+        }
+        this.order = new int[lengths.length];
+        int[] next = starts.clone();
+        for (int i = 0; i < lengths.length; i++) {
+            order[next[lengths[i]]++] = i;
+        }
+
+        // Buckets are independent, so large dictionaries build them on all cores
+        this.buckets = new LengthBucket[maxLength + 1];
+        IntStream lengthRange = IntStream.rangeClosed(1, maxLength);
+        if (lengths.length >= PARALLEL_BUILD_THRESHOLD) {
+            lengthRange = lengthRange.parallel();
+        }
+        lengthRange.filter(length -> starts[length + 1] > starts[length])
+                .forEach(length -> buckets[length] = new LengthBucket(
+                        words, order, starts[length], starts[length + 1] - starts[length], length));
+        int largest = 0;
+        for (int length = 1; length <= maxLength; length++) {
+            largest = Math.max(largest, starts[length + 1] - starts[length]);
+        }
+        this.largestBucketSize = largest;
+    }
+
+    /**
+     * Constructs an index over the given words.
+     *
+     * @param words The words to index, already in canonical form (see {@link WordNormalizer})
+     */
+    public DictionaryIndex(String[] words) {
+        this(new ArrayWordList(words));
+    }
+
+    /**
+     * Gets the number of indexed words.
+     *
+     * @return The number of words
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Gets the number of words in the largest length bucket, the capacity a candidate set needs
+     * to serve games of any length.
+     *
+     * @return The size of the largest bucket, 0 for an empty dictionary
+     */
+    public int largestBucketSize() {
+        return largestBucketSize;
+    }
+
+    /**
+     * Gets the word with the given index.
+     *
+     * @param index The word index in length order
+     * @return The word in lower case
+     */
+    public String word(int index) {
+        return words.get(order[index]);
+    }
+
+    /**
+     * Gets the word list this index was built from.
+     *
+     * @return The indexed word list
+     */
+    public WordList words() {
+        return words;
+    }
+
+    /**
+     * Gets a hash over all words of the index, used to check that cached data belongs to this dictionary.
+     *
+     * @return The 64-bit FNV-1a hash of the word list
+     */
+    public long fingerprint() {
+        if (fingerprint == 0) {
+            long hash = 0xCBF29CE484222325L;
+            char[] chars = new char[words.maxLength()];
+            for (int i = 0; i < words.size(); i++) {
+                int length = words.getChars(i, chars);
+                for (int j = 0; j < length; j++) {
+                    hash = (hash ^ chars[j]) * 0x100000001B3L;
+                }
+                hash = (hash ^ '\n') * 0x100000001B3L;
+            }
+            fingerprint = hash;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Gets the bucket of all words with the given length.
+     *
+     * @param length The word length
+     * @return The bucket, or null if the dictionary has no word of that length
+     */
+    public LengthBucket bucket(int length) {
+        return length > 0 && length < buckets.length ? buckets[length] : null;
+    }
+}
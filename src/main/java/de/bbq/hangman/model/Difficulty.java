@@ -0,0 +1,80 @@
+package de.bbq.hangman.model;
+
+/**
+ * Difficulty tiers of words, by the number of different letters that have to be found.
+ * The first letter is always shown and does not count.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public enum Difficulty {
+    /** Up to 5 different letters to find */
+    EASY(0, 5),
+    /** 6 to 8 different letters to find */
+    MEDIUM(6, 8),
+    /** 9 or more different letters to find */
+    HARD(9, Alphabet.SIZE);
+
+    private final int minLetters;
+    private final int maxLetters;
+
+    Difficulty(int minLetters, int maxLetters) {
+        this.minLetters = minLetters;
+        this.maxLetters = maxLetters;
+    }
+
+    /**
+     * Gets the tier of a word.
+     *
+     * @param word   The chars of the word in canonical form
+     * @param length The length of the word
+     * @return The difficulty tier
+     */
+    public static Difficulty of(char[] word, int length) {
+        int letters = 0;
+        int other = 0;
+        for (int i = 1; i < length; i++) {
+            int letter = Alphabet.indexOf(word[i]);
+            if (letter >= 0) {
+                letters |= 1 << letter;
+            } else if (!occursBetween(word, word[i], 1, i)) {
+                // Characters outside the alphabet are rare, so looking back for them is cheap
+                other++;
+            }
+        }
+        int count = Integer.bitCount(letters) + other;
+        for (Difficulty difficulty : values()) {
+            if (count <= difficulty.maxLetters) {
+                return difficulty;
+            }
+        }
+        return HARD;
+    }
+
+    private static boolean occursBetween(char[] word, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (word[i] == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the smallest number of different letters of a word in this tier.
+     *
+     * @return The lower bound
+     */
+    public int getMinLetters() {
+        return minLetters;
+    }
+
+    /**
+     * Gets the largest number of different letters of a word in this tier.
+     *
+     * @return The upper bound
+     */
+    public int getMaxLetters() {
+        return maxLetters;
+    }
+}
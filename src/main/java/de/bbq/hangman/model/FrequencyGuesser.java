@@ -0,0 +1,59 @@
+package de.bbq.hangman.model;
+
+import java.util.List;
+
+/**
+ * Guesses letters in the order of their frequency in German texts, without looking at the dictionary.
+ * Serves as a baseline for other strategies: it needs no index and almost no time per guess.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class FrequencyGuesser implements GuessStrategy {
+    private static final String LETTERS_BY_FREQUENCY = "enisratdhulcgmobwfkzpvüäößjyxq";
+
+    private int guessedLetters;
+    private int next;
+
+    @Override
+    public void initializeGuesser() {
+        guessedLetters = 0;
+        next = 0;
+    }
+
+    @Override
+    public char getNextLetterGuess() {
+        while (next < LETTERS_BY_FREQUENCY.length()) {
+            char letter = LETTERS_BY_FREQUENCY.charAt(next++);
+            int index = Alphabet.indexOf(letter);
+            if ((guessedLetters & (1 << index)) == 0) {
+                guessedLetters |= 1 << index;
+                return letter;
+            }
+        }
+        return 'a'; // Fallback
+    }
+
+    /**
+     * Guesses the display itself, which is only right once every letter is revealed.
+     */
+    @Override
+    public String getWordGuess(String currentDisplay) {
+        return currentDisplay;
+    }
+
+    @Override
+    public void updatePossibleWords(CharSequence currentDisplay, List<Character> guessedLetters) {
+        for (char letter : guessedLetters) {
+            int index = Alphabet.indexOf(letter);
+            if (index >= 0) {
+                this.guessedLetters |= 1 << index;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasMoreLetters() {
+        return guessedLetters != Alphabet.ALL;
+    }
+}
@@ -0,0 +1,33 @@
+package de.bbq.hangman.model;
+
+/**
+ * Listener for the state changes of a {@link HangmanModel}.
+ * It is called after each change has been applied, on the thread that made the move, and
+ * should return quickly because it lies on the latency path of every guess.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public interface GameListener {
+
+    /**
+     * Called when a new game has been initialized.
+     *
+     * @param word The word to guess in lower case
+     */
+    void gameStarted(String word);
+
+    /**
+     * Called when a letter that was not guessed before has been guessed.
+     *
+     * @param letter The letter in lower case
+     */
+    void letterGuessed(char letter);
+
+    /**
+     * Called when a complete word has been guessed.
+     *
+     * @param word The guessed word in lower case
+     */
+    void wordGuessed(String word);
+}
@@ -0,0 +1,142 @@
+package de.bbq.hangman.model;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Mutable per-game state of a {@link ComputerGuesser}: the candidate bitset, the letter counts of the
+ * candidates, the letter masks and counters, the position in the decision tree or opening book, and the
+ * scratch arrays of the candidate filter.
+ * <p>
+ * A state is sized for the largest bucket of its dictionary, so one state serves games of any length and
+ * {@link #reset()} prepares it for the next game without allocating. Guessers take their state from a small
+ * pool per dictionary and give it back when they are released, so sessions that come and go reuse
+ * the states of earlier sessions instead of building new ones.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+final class GuessState {
+    /** Number of released states kept per dictionary */
+    private static final int MAX_POOLED = 64;
+
+    private static final Map<DictionaryIndex, Deque<GuessState>> POOLS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Candidates of the current bucket, resized at the start of every game */
+    final CandidateSet candidates;
+
+    /** Copy of the candidates before the current filter pass, to find the removed words */
+    final CandidateSet previous;
+
+    /** Number of candidates containing each letter at a guessable position, indexed by letter */
+    final int[] letterCounts;
+
+    /** Postings whose words are kept by the current filter pass */
+    final CandidateSet[] keep;
+
+    /** Postings whose words are removed by the current filter pass */
+    final CandidateSet[] remove;
+
+    /** Letter postings for recounting {@link #letterCounts} */
+    final CandidateSet[] postings;
+
+    LengthBucket bucket;
+    boolean hasCandidates;
+    int candidateCount;
+    boolean candidatesStale;
+    OpeningBook.Node bookNode;
+    int treeNode;
+    int bookLetters;
+    int lastGuess;
+    int guessedLetters;
+    int reportedLetters;
+    int appliedLetters;
+    int currentLetterIndex;
+
+    private GuessState(DictionaryIndex index) {
+        int maxLength = index.words().maxLength();
+        this.candidates = new CandidateSet(index.largestBucketSize());
+        this.previous = new CandidateSet(index.largestBucketSize());
+        this.letterCounts = new int[Alphabet.SIZE];
+        // Every guessed letter adds at most one posting per position, or a single one for a miss
+        this.keep = new CandidateSet[Math.max(maxLength, 1)];
+        this.remove = new CandidateSet[Alphabet.SIZE * Math.max(maxLength, 1)];
+        this.postings = new CandidateSet[Alphabet.SIZE];
+        reset();
+    }
+
+    /**
+     * Takes a state for a dictionary from its pool, or creates one if the pool is empty.
+     *
+     * @param index The dictionary the state is used with
+     * @return A state that is reset for a new game
+     */
+    static GuessState acquire(DictionaryIndex index) {
+        Deque<GuessState> pool = POOLS.computeIfAbsent(index, key -> new ArrayDeque<>(MAX_POOLED));
+        GuessState state;
+        synchronized (pool) {
+            state = pool.pollFirst();
+        }
+        if (state == null) {
+            return new GuessState(index);
+        }
+        state.reset();
+        return state;
+    }
+
+    /**
+     * Gives a state back to the pool of its dictionary. The state must not be used afterwards.
+     *
+     * @param index The dictionary the state was acquired for
+     * @param state The state to give back
+     */
+    static void release(DictionaryIndex index, GuessState state) {
+        Deque<GuessState> pool = POOLS.get(index);
+        if (pool == null) {
+            return;
+        }
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED) {
+                state.bucket = null;
+                state.bookNode = null;
+                pool.offerFirst(state);
+            }
+        }
+    }
+
+    /**
+     * Prepares the state for a new game. The candidate bitset is only resized once the word length is known.
+     */
+    void reset() {
+        guessedLetters = 0;
+        reportedLetters = 0;
+        appliedLetters = 0;
+        currentLetterIndex = 0;
+        bucket = null;
+        hasCandidates = false;
+        candidateCount = 0;
+        candidatesStale = false;
+        bookNode = null;
+        treeNode = -1;
+        bookLetters = 0;
+        lastGuess = -1;
+    }
+
+    /**
+     * Starts the candidates of a game on a bucket: every word of the bucket is a candidate until
+     * the pattern has been matched.
+     *
+     * @param bucket The bucket of the word length
+     */
+    void selectBucket(LengthBucket bucket) {
+        this.bucket = bucket;
+        candidates.resize(bucket.size());
+        previous.resize(bucket.size());
+        hasCandidates = true;
+        candidateCount = bucket.size();
+        candidatesStale = true;
+    }
+}
@@ -0,0 +1,60 @@
+package de.bbq.hangman.model;
+
+import java.util.List;
+
+/**
+ * Strategy of a computer player that guesses the word of a game.
+ * The controller and the simulations drive a strategy through the same turn order: after
+ * {@link #initializeGuesser()} and a first {@link #updatePossibleWords(CharSequence, List)}, the strategy
+ * names letters until the game ends or it runs out of letters, and is told the new display after
+ * every letter. If the game is still open then, it may guess a whole word.
+ * Implementations keep the state of one game and need not be thread-safe.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public interface GuessStrategy {
+
+    /**
+     * Initializes the strategy for a new game.
+     */
+    void initializeGuesser();
+
+    /**
+     * Gets the next letter to guess.
+     *
+     * @return The next letter, not guessed before in this game as long as {@link #hasMoreLetters()} is true
+     */
+    char getNextLetterGuess();
+
+    /**
+     * Gets a guess for the whole word.
+     *
+     * @param currentDisplay The current state of the word in canonical form
+     * @return A word guess
+     */
+    String getWordGuess(String currentDisplay);
+
+    /**
+     * Tells the strategy the state of the game after a guess.
+     *
+     * @param currentDisplay The current display of the word in lower case
+     * @param guessedLetters Letters that have been guessed
+     */
+    void updatePossibleWords(CharSequence currentDisplay, List<Character> guessedLetters);
+
+    /**
+     * Checks if there are more letters available to guess.
+     *
+     * @return true if more letters are available
+     */
+    boolean hasMoreLetters();
+
+    /**
+     * Gives back pooled resources once no more games are played with this strategy, for example
+     * when a session ends. A released strategy takes new resources if it is initialized again.
+     * Does nothing by default.
+     */
+    default void release() {
+    }
+}
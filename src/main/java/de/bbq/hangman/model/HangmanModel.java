@@ -1,41 +1,148 @@
 package de.bbq.hangman.model;
 
-import java.util.ArrayList;
+import de.bbq.hangman.metrics.HangmanMetrics;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
  * Model class for the Hangman game.
  * Contains the game logic and state management for the Hangman game.
  * This class is responsible for maintaining the game state and processing game moves.
+ * <p>
+ * The state is kept in primitive form: the word and its display mask as char arrays, the guessed
+ * letters as a bitmask and the number of unrevealed positions as a counter. A guess therefore costs
+ * O(word length) and allocates nothing, and the arrays are reused by the next game.
+ * <p>
+ * In an adversarial game ({@link #initializeAdversarialGame(DictionaryIndex, int)}) the model does not
+ * commit to a word: an {@link AdversarialWordSet} answers every guess, and the word to guess is just one
+ * of the words still consistent with the answers.
  *
  * @author Christos Poulios
  * @version 1.0
  */
 public class HangmanModel {
+    /** Number of lives at the start of a game */
+    public static final int INITIAL_LIVES = 10;
+
     private String wordToGuess;
-    private StringBuilder currentDisplay;
+    private char[] word = new char[16];
+    private char[] display = new char[16];
+    private int length;
+    private int hiddenPositions;
+    private String displayCache;
     private int remainingLives;
-    private List<Character> guessedLetters;
+    private int guessedMask;
+    private BitSet otherGuessed;
+    private char[] guessOrder = new char[Alphabet.SIZE];
+    private int guessCount;
     private boolean gameWon;
     private boolean gameOver;
+    private GameListener listener;
+    private boolean reported;
+    private AdversarialWordSet adversary;
+    private long startNanos;
+
+    /** Boxed letters of the alphabet, so the guessed letters view does not allocate for umlauts and ß */
+    private static final Character[] BOXED_LETTERS = new Character[Alphabet.SIZE];
+
+    static {
+        for (int i = 0; i < Alphabet.SIZE; i++) {
+            BOXED_LETTERS[i] = Alphabet.letterAt(i);
+        }
+    }
+
+    /** Shared counters of started, won and lost games and of guesses */
+    private static final HangmanMetrics METRICS = HangmanMetrics.global();
+
+    /** Read-only live view of the display mask */
+    private final CharSequence displayView = new DisplayView();
+
+    /** Read-only live view of the guessed letters in guessing order */
+    private final List<Character> guessedLettersView = new GuessedLettersView();
 
     /**
      * Initializes a new game with the given word.
      * Sets up the initial game state including lives, display mask, and resets all game flags.
      *
-     * @param word The word that players need to guess
+     * @param word The word that players need to guess, brought into canonical form by {@link WordNormalizer}
      * @throws IllegalArgumentException if the word is null or empty
      */
     public void initializeGame(String word) {
-        if (word == null || word.trim().isEmpty()) {
+        initializeGame(word, true);
+    }
+
+    /**
+     * Initializes a new game in which the computer guesses the word of the user.
+     * The computer plays the game without further input, so there is nothing for the user to resume;
+     * like adversarial games, computer games are not reported to the {@link GameListener}.
+     *
+     * @param word The word of the user, brought into canonical form by {@link WordNormalizer}
+     * @throws IllegalArgumentException if the word is null or empty
+     */
+    public void initializeComputerGame(String word) {
+        initializeGame(word, false);
+    }
+
+    private void initializeGame(String word, boolean reported) {
+        if (word == null || word.isBlank()) {
             throw new IllegalArgumentException("Word cannot be null or empty");
         }
-        this.wordToGuess = word.toLowerCase();
-        this.remainingLives = 10;
-        this.guessedLetters = new ArrayList<>();
+        this.wordToGuess = WordNormalizer.normalize(word);
+        this.adversary = null;
+        this.reported = reported;
+        resetGame();
+        if (listener != null && reported) {
+            listener.gameStarted(wordToGuess);
+        }
+    }
+
+    /**
+     * Initializes an adversarial game over all words of a length in the index.
+     * The model keeps every word that fits the answers so far and answers each guess so that as many
+     * words as possible stay in play. Adversarial games are not reported to the {@link GameListener}.
+     *
+     * @param index  The dictionary the words come from
+     * @param length The length of the word to guess
+     * @throws IllegalArgumentException if the dictionary has no usable word of the length
+     */
+    public void initializeAdversarialGame(DictionaryIndex index, int length) {
+        LengthBucket bucket = index.bucket(length);
+        if (bucket == null) {
+            throw new IllegalArgumentException("No words of length " + length);
+        }
+        this.adversary = new AdversarialWordSet(bucket);
+        this.wordToGuess = adversary.representative();
+        this.reported = false;
+        resetGame();
+    }
+
+    /**
+     * Resets lives, guesses and flags and masks the word to guess for a new game.
+     */
+    private void resetGame() {
+        this.remainingLives = INITIAL_LIVES;
+        this.guessedMask = 0;
+        this.guessCount = 0;
+        if (otherGuessed != null) {
+            otherGuessed.clear();
+        }
         this.gameWon = false;
         this.gameOver = false;
         createMaskedWord();
+        startNanos = System.nanoTime();
+        METRICS.gameStarted();
+    }
+
+    /**
+     * Sets the listener that is told about every state change, for example to persist the game.
+     *
+     * @param listener The listener, or null for none
+     */
+    public void setGameListener(GameListener listener) {
+        this.listener = listener;
     }
 
     /**
@@ -44,9 +151,16 @@ public class HangmanModel {
      * This method is called during game initialization.
      */
     private void createMaskedWord() {
-        currentDisplay = new StringBuilder();
-        currentDisplay.append(wordToGuess.charAt(0));
-        currentDisplay.append("_".repeat(wordToGuess.length() - 1));
+        length = wordToGuess.length();
+        if (word.length < length) {
+            word = new char[length];
+            display = new char[length];
+        }
+        wordToGuess.getChars(0, length, word, 0);
+        display[0] = word[0];
+        Arrays.fill(display, 1, length, '_');
+        hiddenPositions = length - 1;
+        displayCache = null;
     }
 
     /**
@@ -57,28 +171,63 @@ public class HangmanModel {
      */
     public boolean guessLetter(char letter) {
         letter = Character.toLowerCase(letter);
-        if (guessedLetters.contains(letter)) {
+        if (hasBeenGuessed(letter)) {
             return false;
         }
 
-        guessedLetters.add(letter);
+        markGuessed(letter);
+        METRICS.guessProcessed();
         boolean letterFound = false;
+        if (adversary != null) {
+            // The answer narrows the words; any remaining word reveals the letter at the answered positions
+            adversary.answer(letter);
+            wordToGuess = adversary.representative();
+            wordToGuess.getChars(0, length, word, 0);
+        }
 
-        for (int i = 1; i < wordToGuess.length(); i++) {
-            if (wordToGuess.charAt(i) == letter) {
-                currentDisplay.setCharAt(i, letter);
+        // A letter that was not guessed before is hidden at every position after the first
+        for (int i = 1; i < length; i++) {
+            if (word[i] == letter) {
+                display[i] = letter;
+                hiddenPositions--;
                 letterFound = true;
             }
         }
 
-        if (!letterFound) {
+        if (letterFound) {
+            displayCache = null;
+        } else {
             remainingLives--;
         }
 
         checkGameState();
+        if (listener != null && reported) {
+            listener.letterGuessed(letter);
+        }
         return letterFound;
     }
 
+    /**
+     * Records a letter as guessed.
+     *
+     * @param letter The letter in lower case
+     */
+    private void markGuessed(char letter) {
+        int index = Alphabet.indexOf(letter);
+        if (index >= 0) {
+            guessedMask |= 1 << index;
+        } else {
+            if (otherGuessed == null) {
+                otherGuessed = new BitSet();
+            }
+            otherGuessed.set(letter);
+        }
+        if (guessCount == guessOrder.length) {
+            guessOrder = Arrays.copyOf(guessOrder, guessCount * 2);
+        }
+        guessOrder[guessCount++] = letter;
+    }
+
     /**
      * Processes a complete word guess.
      *
@@ -86,15 +235,32 @@ public class HangmanModel {
      * @return true if the guess was correct, false otherwise
      */
     public boolean guessWord(String word) {
-        word = word.toLowerCase();
-        if (word.equals(wordToGuess)) {
-            currentDisplay = new StringBuilder(wordToGuess);
+        word = WordNormalizer.normalize(word);
+        METRICS.guessProcessed();
+        boolean correct;
+        if (adversary != null) {
+            correct = adversary.answerWord(word);
+            wordToGuess = adversary.representative();
+            wordToGuess.getChars(0, length, this.word, 0);
+        } else {
+            correct = word.equals(wordToGuess);
+        }
+        if (correct) {
+            System.arraycopy(this.word, 0, display, 0, length);
+            hiddenPositions = 0;
+            displayCache = wordToGuess;
+            if (!gameWon && !gameOver) {
+                METRICS.gameFinished(true, System.nanoTime() - startNanos);
+            }
             gameWon = true;
-            return true;
+        } else {
+            remainingLives--;
+            checkGameState();
         }
-        remainingLives--;
-        checkGameState();
-        return false;
+        if (listener != null && reported) {
+            listener.wordGuessed(word);
+        }
+        return correct;
     }
 
     /**
@@ -102,21 +268,39 @@ public class HangmanModel {
      * Determines if the game has been won or lost.
      */
     private void checkGameState() {
+        boolean finished = gameOver || gameWon;
         if (remainingLives <= 0) {
             gameOver = true;
         }
-        if (currentDisplay.toString().equals(wordToGuess)) {
+        if (hiddenPositions == 0) {
             gameWon = true;
         }
+        if (!finished && (gameOver || gameWon)) {
+            METRICS.gameFinished(gameWon, System.nanoTime() - startNanos);
+        }
     }
 
     /**
      * Gets the current display state of the word.
+     * The String is created once per change of the display and cached until the next reveal.
      *
      * @return String representing the current state of the word with unguessed letters as underscores
      */
     public String getCurrentDisplay() {
-        return currentDisplay.toString();
+        if (displayCache == null) {
+            displayCache = new String(display, 0, length);
+        }
+        return displayCache;
+    }
+
+    /**
+     * Gets a read-only view of the current display state that follows all later guesses.
+     * Reading it never copies the display.
+     *
+     * @return Live view of the word with unguessed letters as underscores
+     */
+    public CharSequence getDisplay() {
+        return displayView;
     }
 
     /**
@@ -129,12 +313,22 @@ public class HangmanModel {
     }
 
     /**
-     * Gets the list of letters that have been guessed.
+     * Gets the letters that have been guessed.
+     * The list is a read-only view that follows all later guesses; it is not copied.
      *
-     * @return List of Characters that have been guessed so far
+     * @return List of Characters that have been guessed so far, in guessing order
      */
     public List<Character> getGuessedLetters() {
-        return new ArrayList<>(guessedLetters);
+        return guessedLettersView;
+    }
+
+    /**
+     * Gets the guessed letters of the {@link Alphabet} as a bitmask.
+     *
+     * @return Mask with the bit of every guessed alphabet letter set
+     */
+    public int getGuessedLetterMask() {
+        return guessedMask;
     }
 
     /**
@@ -146,6 +340,15 @@ public class HangmanModel {
         return wordToGuess;
     }
 
+    /**
+     * Checks if the current game is an adversarial game that has not committed to a word.
+     *
+     * @return true for an adversarial game
+     */
+    public boolean isAdversarial() {
+        return adversary != null;
+    }
+
     /**
      * Checks if the game has been won.
      *
@@ -170,6 +373,60 @@ public class HangmanModel {
      * @return true if the letter has been guessed before, false otherwise
      */
     public boolean hasBeenGuessed(char letter) {
-        return guessedLetters.contains(Character.toLowerCase(letter));
+        letter = Character.toLowerCase(letter);
+        int index = Alphabet.indexOf(letter);
+        if (index >= 0) {
+            return (guessedMask & (1 << index)) != 0;
+        }
+        return otherGuessed != null && otherGuessed.get(letter);
+    }
+
+    /**
+     * Live view of the display mask.
+     */
+    private class DisplayView implements CharSequence {
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return display[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return getCurrentDisplay().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return getCurrentDisplay();
+        }
+    }
+
+    /**
+     * Live view of the guessed letters.
+     * Letters of the alphabet are returned from a shared table; only other characters are boxed on access.
+     */
+    private class GuessedLettersView extends AbstractList<Character> {
+        @Override
+        public Character get(int index) {
+            if (index >= guessCount) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            char letter = guessOrder[index];
+            int letterIndex = Alphabet.indexOf(letter);
+            return letterIndex >= 0 ? BOXED_LETTERS[letterIndex] : Character.valueOf(letter);
+        }
+
+        @Override
+        public int size() {
+            return guessCount;
+        }
     }
 }
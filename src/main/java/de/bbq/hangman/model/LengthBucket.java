@@ -0,0 +1,228 @@
+package de.bbq.hangman.model;
+
+/**
+ * All words of a dictionary that share one length.
+ * Keeps a posting set per (position, letter) pair, so a display pattern like {@code k____e}
+ * resolves by intersecting bitsets instead of comparing strings.
+ * Word indices of a bucket are local, ranging from 0 to {@link #size()} - 1.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class LengthBucket {
+    private final WordList words;
+    private final int[] order;
+    private final int offset;
+    private final int size;
+    private final int length;
+    private final CandidateSet[] letterPostings;
+    private final CandidateSet[][] positionPostings;
+    private final int[] letterMasks;
+    private final CandidateSet empty;
+
+    /**
+     * Constructs a bucket over a range of a length-sorted word order.
+     *
+     * @param words  The shared word list
+     * @param order  Indices into the word list, sorted by word length
+     * @param offset The position of the first word of this bucket in the order
+     * @param size   The number of words in this bucket
+     * @param length The length of all words in this bucket
+     */
+    LengthBucket(WordList words, int[] order, int offset, int size, int length) {
+        this.words = words;
+        this.order = order;
+        this.offset = offset;
+        this.size = size;
+        this.length = length;
+        this.letterPostings = new CandidateSet[Alphabet.SIZE];
+        this.positionPostings = new CandidateSet[length][Alphabet.SIZE];
+        this.letterMasks = new int[size];
+        this.empty = new CandidateSet(size);
+
+        char[] word = new char[words.maxLength()];
+        for (int i = 0; i < size; i++) {
+            words.getChars(order[offset + i], word);
+            for (int position = 0; position < length; position++) {
+                int letter = Alphabet.indexOf(word[position]);
+                if (letter < 0) {
+                    continue;
+                }
+                posting(positionPostings[position], letter).set(i);
+                // The first letter is revealed from the start, so only later positions can be hit by a guess
+                if (position > 0) {
+                    posting(letterPostings, letter).set(i);
+                    letterMasks[i] |= 1 << letter;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the posting set for a letter, creating it on first use.
+     *
+     * @param postings The posting sets of one position or of the whole word
+     * @param letter   The letter index
+     * @return The posting set
+     */
+    private CandidateSet posting(CandidateSet[] postings, int letter) {
+        if (postings[letter] == null) {
+            postings[letter] = new CandidateSet(size);
+        }
+        return postings[letter];
+    }
+
+    /**
+     * Gets the length of the words in this bucket.
+     *
+     * @return The word length
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Gets the number of words in this bucket.
+     *
+     * @return The number of words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the dictionary-wide index of the first word in this bucket.
+     *
+     * @return The offset of the bucket
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Gets a word of this bucket.
+     *
+     * @param index The local word index
+     * @return The word in lower case
+     */
+    public String word(int index) {
+        return words.get(order[offset + index]);
+    }
+
+    /**
+     * Copies the chars of a word of this bucket into a buffer without creating a String.
+     *
+     * @param index  The local word index
+     * @param target The buffer, at least {@link #length()} chars long
+     */
+    public void wordChars(int index, char[] target) {
+        words.getChars(order[offset + index], target);
+    }
+
+    /**
+     * Gets the letters a word contains at guessable positions, the same letters whose
+     * {@link #letterPosting(int) postings} hold the word.
+     *
+     * @param index The local word index
+     * @return The letter mask of the word
+     */
+    public int letterMask(int index) {
+        return letterMasks[index];
+    }
+
+    /**
+     * Gets the set of words that contain the given letter at any guessable position.
+     *
+     * @param letter The letter index
+     * @return The posting set of the letter, must not be modified
+     */
+    public CandidateSet letterPosting(int letter) {
+        CandidateSet posting = letterPostings[letter];
+        return posting != null ? posting : empty;
+    }
+
+    /**
+     * Gets the set of words that have the given letter at the given position.
+     *
+     * @param position The position within the word
+     * @param letter   The letter index
+     * @return The posting set of the pair, must not be modified
+     */
+    public CandidateSet positionPosting(int position, int letter) {
+        CandidateSet posting = positionPostings[position][letter];
+        return posting != null ? posting : empty;
+    }
+
+    /**
+     * Restricts a candidate set to the words matching a display pattern.
+     * Revealed positions are resolved through the position postings, characters outside
+     * the alphabet are compared directly on the remaining candidates.
+     *
+     * @param pattern    The display pattern in lower case, with '_' for hidden positions
+     * @param candidates The candidates of this bucket, updated in place
+     * @return The number of candidates left
+     */
+    public int retainMatching(CharSequence pattern, CandidateSet candidates) {
+        return retainMatching(pattern, candidates, new CandidateSet[length]);
+    }
+
+    /**
+     * Restricts a candidate set to the words matching a display pattern, collecting the postings in a reusable array.
+     *
+     * @param pattern    The display pattern in lower case, with '_' for hidden positions
+     * @param candidates The candidates of this bucket, updated in place
+     * @param keep       Scratch array of at least {@link #length()} sets, overwritten
+     * @return The number of candidates left
+     */
+    int retainMatching(CharSequence pattern, CandidateSet candidates, CandidateSet[] keep) {
+        if (pattern.length() != length) {
+            candidates.clearAll();
+            return 0;
+        }
+
+        int keepCount = 0;
+        boolean needsScan = false;
+        for (int position = 0; position < length; position++) {
+            char patternChar = pattern.charAt(position);
+            if (patternChar == '_') {
+                continue;
+            }
+            int letter = Alphabet.indexOf(patternChar);
+            if (letter >= 0) {
+                keep[keepCount++] = positionPosting(position, letter);
+            } else {
+                needsScan = true;
+            }
+        }
+        int count = CandidateFilter.retain(candidates, candidates.size(), keep, keepCount, CandidateFilter.NONE, 0);
+
+        if (needsScan) {
+            char[] word = new char[words.maxLength()];
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                wordChars(i, word);
+                if (!matchesOtherCharacters(word, pattern)) {
+                    candidates.clear(i);
+                    count--;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compares the revealed positions of a word that the posting sets cannot represent.
+     *
+     * @param word    The word to check
+     * @param pattern The display pattern
+     * @return true if the word matches every revealed character outside the alphabet
+     */
+    private static boolean matchesOtherCharacters(char[] word, CharSequence pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char patternChar = pattern.charAt(i);
+            if (patternChar != '_' && Alphabet.indexOf(patternChar) < 0 && patternChar != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package de.bbq.hangman.model;
+
+/**
+ * Chooses the letter that splits a candidate set best.
+ * A letter scores the number of candidates containing it, so the best letter is the one
+ * with the smallest expected number of misses.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class LetterScorer {
+
+    private LetterScorer() {
+    }
+
+    /**
+     * Finds the letter with the highest hit probability among the candidates.
+     *
+     * @param bucket     The length bucket the candidates refer to
+     * @param candidates The remaining candidate words
+     * @param excluded   Mask of letters that must not be chosen
+     * @return The index of the best letter, or -1 if no candidate contains an eligible letter
+     */
+    public static int bestLetter(LengthBucket bucket, CandidateSet candidates, int excluded) {
+        return bestLetter(bucket, candidates, candidates.size(), excluded);
+    }
+
+    /**
+     * Finds the letter with the highest hit probability among the candidates.
+     * Knowing the number of candidates lets the {@link CandidateFilter} count them one by one
+     * when few are left, or split the count across cores for very large buckets.
+     *
+     * @param bucket      The length bucket the candidates refer to
+     * @param candidates  The remaining candidate words
+     * @param cardinality The number of candidates
+     * @param excluded    Mask of letters that must not be chosen
+     * @return The index of the best letter, or -1 if no candidate contains an eligible letter
+     */
+    public static int bestLetter(LengthBucket bucket, CandidateSet candidates, int cardinality, int excluded) {
+        CandidateSet[] postings = new CandidateSet[Alphabet.SIZE];
+        for (int letter = 0; letter < Alphabet.SIZE; letter++) {
+            if ((excluded & (1 << letter)) == 0) {
+                postings[letter] = bucket.letterPosting(letter);
+            }
+        }
+        int[] counts = CandidateFilter.intersectionCounts(candidates, cardinality, postings);
+        return bestLetter(counts, excluded);
+    }
+
+    /**
+     * Finds the letter with the highest count in a table of letter counts, for example one that is
+     * kept up to date while candidates are removed. Costs one pass over the alphabet.
+     *
+     * @param counts   The number of candidates containing each letter, indexed by letter
+     * @param excluded Mask of letters that must not be chosen
+     * @return The index of the best letter, or -1 if no eligible letter has a count above 0
+     */
+    public static int bestLetter(int[] counts, int excluded) {
+        int bestLetter = -1;
+        int bestCount = 0;
+        for (int letter = 0; letter < Alphabet.SIZE; letter++) {
+            if (counts[letter] > bestCount && (excluded & (1 << letter)) == 0) {
+                bestCount = counts[letter];
+                bestLetter = letter;
+            }
+        }
+        return bestLetter;
+    }
+}
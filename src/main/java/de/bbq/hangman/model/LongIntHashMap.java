@@ -0,0 +1,146 @@
+package de.bbq.hangman.model;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from long keys to int counters without boxing.
+ * Entries live in two dense arrays in insertion order, so they can be walked by position;
+ * an open-addressing table with linear probing maps each key to its entry.
+ * Clearing only resets the slots that were used, so a map can be reused cheaply for many small rounds.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class LongIntHashMap {
+    private static final int EMPTY = -1;
+
+    private int[] slots;
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructs an empty map.
+     *
+     * @param expectedSize The number of keys the map holds without growing
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        this.keys = new long[Math.max(4, expectedSize)];
+        this.values = new int[keys.length];
+    }
+
+    /**
+     * Adds a value to the counter of a key, starting from 0 for a new key.
+     *
+     * @param key   The key
+     * @param delta The value to add
+     * @return The new value of the counter
+     */
+    public int add(long key, int delta) {
+        int mask = slots.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != EMPTY) {
+            int entry = slots[slot];
+            if (keys[entry] == key) {
+                return values[entry] += delta;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = delta;
+        slots[slot] = size;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return delta;
+    }
+
+    /**
+     * Gets the counter of a key.
+     *
+     * @param key The key
+     * @return The value of the counter, 0 if the key is not in the map
+     */
+    public int get(long key) {
+        int mask = slots.length - 1;
+        for (int slot = hash(key) & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slots[slot]] == key) {
+                return values[slots[slot]];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the key of an entry.
+     *
+     * @param entry The position of the entry in insertion order, less than {@link #size()}
+     * @return The key
+     */
+    public long keyAt(int entry) {
+        return keys[entry];
+    }
+
+    /**
+     * Gets the value of an entry.
+     *
+     * @param entry The position of the entry in insertion order, less than {@link #size()}
+     * @return The value
+     */
+    public int valueAt(int entry) {
+        return values[entry];
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        int mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hash(keys[entry]) & mask;
+            while (slots[slot] != EMPTY) {
+                slots[slot] = EMPTY;
+                slot = (slot + 1) & mask;
+            }
+        }
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        int mask = capacity - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hash(keys[entry]) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry;
+        }
+    }
+
+    /**
+     * Spreads the bits of a key, since reveal masks differ mostly in a few low bits.
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
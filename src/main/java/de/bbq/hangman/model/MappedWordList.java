@@ -0,0 +1,154 @@
+package de.bbq.hangman.model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Word list backed by a memory-mapped dictionary file.
+ * The file holds a header, an offsets table and the packed UTF-8 bytes of all words:
+ * <pre>
+ * int magic, int version, int count, int maxLength
+ * int[count + 1] offsets into the payload
+ * byte[] payload
+ * </pre>
+ * Words are decoded straight from the mapping on request, so opening even a dictionary with
+ * millions of entries costs no heap, and every JVM mapping the same file shares its page cache.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class MappedWordList implements WordList {
+    private static final int MAGIC = 0x484D574C; // "HMWL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int maxLength;
+    private final int payloadStart;
+
+    private MappedWordList(MappedByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported dictionary version: " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        this.maxLength = buffer.getInt(12);
+        this.payloadStart = HEADER_SIZE + (count + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Maps a dictionary file into memory.
+     *
+     * @param file The dictionary file
+     * @return The mapped word list
+     * @throws IOException if the file cannot be read or is not a dictionary file
+     */
+    public static MappedWordList open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MappedWordList(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes words into a new dictionary file.
+     * The words go through the {@link WordNormalizer} pipeline: they are stored in canonical form,
+     * without blank words and duplicates, in the order of their first occurrence.
+     *
+     * @param file  The file to write
+     * @param words The words to store
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, List<String> words) throws IOException {
+        String[] canonical = WordNormalizer.canonicalize(words);
+        byte[][] encoded = new byte[canonical.length][];
+        int longest = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            String word = canonical[i];
+            encoded[i] = word.getBytes(StandardCharsets.UTF_8);
+            longest = Math.max(longest, word.length());
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(encoded.length);
+            out.writeInt(longest);
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] word : encoded) {
+                offset += word.length;
+                out.writeInt(offset);
+            }
+            for (byte[] word : encoded) {
+                out.write(word);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int maxLength() {
+        return maxLength;
+    }
+
+    @Override
+    public String get(int index) {
+        int start = offset(index);
+        byte[] bytes = new byte[offset(index + 1) - start];
+        buffer.get(payloadStart + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int getChars(int index, char[] target) {
+        int position = payloadStart + offset(index);
+        int end = payloadStart + offset(index + 1);
+        int length = 0;
+        while (position < end) {
+            int b = buffer.get(position++);
+            if (b >= 0) {
+                target[length++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                target[length++] = (char) (((b & 0x1F) << 6) | (buffer.get(position++) & 0x3F));
+            } else if ((b & 0xF0) == 0xE0) {
+                int c = ((b & 0x0F) << 12) | ((buffer.get(position++) & 0x3F) << 6);
+                target[length++] = (char) (c | (buffer.get(position++) & 0x3F));
+            } else {
+                int c = ((b & 0x07) << 18) | ((buffer.get(position++) & 0x3F) << 12);
+                c |= (buffer.get(position++) & 0x3F) << 6;
+                c |= buffer.get(position++) & 0x3F;
+                target[length++] = Character.highSurrogate(c);
+                target[length++] = Character.lowSurrogate(c);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Reads the payload offset of a word from the offsets table.
+     *
+     * @param index The word index, or {@link #size()} for the end of the payload
+     * @return The offset relative to the payload start
+     */
+    private int offset(int index) {
+        return buffer.getInt(HEADER_SIZE + index * Integer.BYTES);
+    }
+}
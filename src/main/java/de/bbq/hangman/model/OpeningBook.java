@@ -0,0 +1,306 @@
+package de.bbq.hangman.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Precomputed first guesses of the computer for a dictionary.
+ * The first guesses of a game depend only on the word length and the revealed first letter, and they are
+ * the most expensive ones because the candidate set is largest. The book stores, for every (length, first
+ * letter) pair, the best first guesses as a small tree: each node holds the letter to guess and one child
+ * per reveal pattern the guess can produce, together with the number of candidates left in that branch.
+ * <p>
+ * Books are cached in memory per dictionary index and can be stored on disk, so they are computed once.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class OpeningBook {
+    /** Number of guesses covered by a book unless specified otherwise */
+    public static final int DEFAULT_DEPTH = 3;
+
+    private static final int MAGIC = 0x484D4F42; // "HMOB"
+    private static final int VERSION = 1;
+
+    /**
+     * Books already built, loaded or being built, per dictionary index. A book is built outside the lock of the map,
+     * so lookups for other indices go on while it is computed; lookups for the same index wait for its future.
+     */
+    private static final Map<DictionaryIndex, CompletableFuture<OpeningBook>> CACHE =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final long fingerprint;
+    private final int depth;
+    private final Map<Integer, Node> roots;
+
+    private OpeningBook(long fingerprint, int depth, Map<Integer, Node> roots) {
+        this.fingerprint = fingerprint;
+        this.depth = depth;
+        this.roots = roots;
+    }
+
+    /**
+     * Gets the book of a dictionary index from the memory cache, building it on first use.
+     *
+     * @param index The dictionary index
+     * @return The opening book of the index
+     */
+    public static OpeningBook of(DictionaryIndex index) {
+        CompletableFuture<OpeningBook> created = new CompletableFuture<>();
+        CompletableFuture<OpeningBook> cached = CACHE.putIfAbsent(index, created);
+        if (cached != null) {
+            return cached.join();
+        }
+        try {
+            OpeningBook book = build(index, DEFAULT_DEPTH);
+            created.complete(book);
+            return book;
+        } catch (RuntimeException | Error e) {
+            // Waiting lookups fail as well, later ones try again
+            CACHE.remove(index, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the book of a dictionary index from a cache file, or builds and stores it if the file
+     * is missing or belongs to another dictionary. The book is also put into the memory cache.
+     *
+     * @param index The dictionary index
+     * @param file  The cache file
+     * @param depth The number of guesses the book covers
+     * @return The opening book of the index
+     * @throws IOException if the cache file cannot be written
+     */
+    public static OpeningBook loadOrBuild(DictionaryIndex index, Path file, int depth) throws IOException {
+        OpeningBook book = null;
+        if (Files.exists(file)) {
+            try {
+                book = load(file);
+            } catch (IOException e) {
+                // An unreadable cache file is simply rebuilt
+            }
+        }
+        if (book == null || book.fingerprint != index.fingerprint() || book.depth != depth) {
+            book = build(index, depth);
+            book.save(file);
+        }
+        CACHE.put(index, CompletableFuture.completedFuture(book));
+        return book;
+    }
+
+    /**
+     * Computes the book for a dictionary index.
+     *
+     * @param index The dictionary index
+     * @param depth The number of guesses the book covers
+     * @return The new opening book
+     */
+    public static OpeningBook build(DictionaryIndex index, int depth) {
+        Map<Integer, Node> roots = new HashMap<>();
+        for (int length = 1; length <= Long.SIZE; length++) {
+            LengthBucket bucket = index.bucket(length);
+            if (bucket == null) {
+                continue;
+            }
+            for (int firstLetter = 0; firstLetter < Alphabet.SIZE; firstLetter++) {
+                CandidateSet candidates = new CandidateSet(bucket.size());
+                candidates.copyFrom(bucket.positionPosting(0, firstLetter));
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+                Node root = buildNode(bucket, candidates, 0, depth);
+                if (root != null) {
+                    roots.put(key(length, firstLetter), root);
+                }
+            }
+        }
+        return new OpeningBook(index.fingerprint(), depth, roots);
+    }
+
+    /**
+     * Computes a node and its children for a candidate set.
+     *
+     * @param bucket     The bucket of the candidates
+     * @param candidates The candidates in this branch
+     * @param excluded   Letters already guessed in this branch
+     * @param depth      The number of guesses still to cover
+     * @return The node, or null if no letter can hit any candidate
+     */
+    private static Node buildNode(LengthBucket bucket, CandidateSet candidates, int excluded, int depth) {
+        int letter = LetterScorer.bestLetter(bucket, candidates, excluded);
+        if (letter < 0) {
+            return null;
+        }
+
+        // Split the candidates by the positions at which the guessed letter would be revealed
+        Map<Long, CandidateSet> splits = new TreeMap<>();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            long mask = 0;
+            for (int position = 1; position < bucket.length(); position++) {
+                if (bucket.positionPosting(position, letter).get(i)) {
+                    mask |= 1L << position;
+                }
+            }
+            splits.computeIfAbsent(mask, key -> new CandidateSet(bucket.size())).set(i);
+        }
+
+        long[] masks = new long[splits.size()];
+        Node[] children = new Node[splits.size()];
+        int child = 0;
+        for (Map.Entry<Long, CandidateSet> split : splits.entrySet()) {
+            masks[child] = split.getKey();
+            if (depth > 1) {
+                children[child] = buildNode(bucket, split.getValue(), excluded | (1 << letter), depth - 1);
+            }
+            child++;
+        }
+        return new Node((byte) letter, candidates.cardinality(), masks, children);
+    }
+
+    /**
+     * Reads a book from a file.
+     *
+     * @param file The book file
+     * @return The opening book
+     * @throws IOException if the file cannot be read or is not a book file
+     */
+    public static OpeningBook load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an opening book file");
+            }
+            long fingerprint = in.readLong();
+            int depth = in.readInt();
+            int rootCount = in.readInt();
+            Map<Integer, Node> roots = new HashMap<>();
+            for (int i = 0; i < rootCount; i++) {
+                int key = in.readInt();
+                roots.put(key, readNode(in));
+            }
+            return new OpeningBook(fingerprint, depth, roots);
+        }
+    }
+
+    private static Node readNode(DataInputStream in) throws IOException {
+        byte letter = in.readByte();
+        int candidates = in.readInt();
+        int childCount = in.readUnsignedShort();
+        long[] masks = new long[childCount];
+        Node[] children = new Node[childCount];
+        for (int i = 0; i < childCount; i++) {
+            masks[i] = in.readLong();
+            if (in.readBoolean()) {
+                children[i] = readNode(in);
+            }
+        }
+        return new Node(letter, candidates, masks, children);
+    }
+
+    /**
+     * Writes this book to a file.
+     *
+     * @param file The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(depth);
+            out.writeInt(roots.size());
+            for (Map.Entry<Integer, Node> root : roots.entrySet()) {
+                out.writeInt(root.getKey());
+                writeNode(out, root.getValue());
+            }
+        }
+    }
+
+    private static void writeNode(DataOutputStream out, Node node) throws IOException {
+        out.writeByte(node.letter);
+        out.writeInt(node.candidates);
+        out.writeShort(node.masks.length);
+        for (int i = 0; i < node.masks.length; i++) {
+            out.writeLong(node.masks[i]);
+            out.writeBoolean(node.children[i] != null);
+            if (node.children[i] != null) {
+                writeNode(out, node.children[i]);
+            }
+        }
+    }
+
+    /**
+     * Gets the first node for a new game.
+     *
+     * @param length      The length of the word
+     * @param firstLetter The index of the revealed first letter
+     * @return The node of the first guess, or null if the book has no entry for the game
+     */
+    public Node root(int length, int firstLetter) {
+        return roots.get(key(length, firstLetter));
+    }
+
+    private static int key(int length, int firstLetter) {
+        return length * Alphabet.SIZE + firstLetter;
+    }
+
+    /**
+     * One guess of the book.
+     */
+    public static final class Node {
+        private final byte letter;
+        private final int candidates;
+        private final long[] masks;
+        private final Node[] children;
+
+        private Node(byte letter, int candidates, long[] masks, Node[] children) {
+            this.letter = letter;
+            this.candidates = candidates;
+            this.masks = masks;
+            this.children = children;
+        }
+
+        /**
+         * Gets the letter to guess at this node.
+         *
+         * @return The letter index
+         */
+        public int letter() {
+            return letter;
+        }
+
+        /**
+         * Gets the number of dictionary words that lead to this node.
+         *
+         * @return The size of the candidate set at this node
+         */
+        public int candidates() {
+            return candidates;
+        }
+
+        /**
+         * Gets the node that follows a reveal pattern of this node's letter.
+         *
+         * @param revealMask The positions at which the letter was revealed, 0 for a miss
+         * @return The next node, or null if the book ends here or no dictionary word produces the pattern
+         */
+        public Node child(long revealMask) {
+            int child = Arrays.binarySearch(masks, revealMask);
+            return child >= 0 ? children[child] : null;
+        }
+    }
+}
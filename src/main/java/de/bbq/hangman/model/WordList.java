@@ -0,0 +1,62 @@
+package de.bbq.hangman.model;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Read-only list of dictionary words addressed by index.
+ * Implementations may keep their words outside the heap and only create a String when one is requested.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public interface WordList {
+
+    /**
+     * Gets the number of words in the list.
+     *
+     * @return The number of words
+     */
+    int size();
+
+    /**
+     * Gets the length of the longest word in the list.
+     *
+     * @return The maximum word length in chars
+     */
+    int maxLength();
+
+    /**
+     * Gets the word with the given index.
+     *
+     * @param index The word index
+     * @return The word
+     */
+    String get(int index);
+
+    /**
+     * Copies the chars of a word into a buffer without creating a String.
+     *
+     * @param index  The word index
+     * @param target The buffer, at least {@link #maxLength()} chars long
+     * @return The number of chars copied
+     */
+    int getChars(int index, char[] target);
+
+    /**
+     * Opens a dictionary file, either a {@link MappedWordList} or a {@link DawgWordList}.
+     *
+     * @param file The dictionary file
+     * @return The word list stored in the file
+     * @throws IOException if the file cannot be read or is not a dictionary file
+     */
+    static WordList open(Path file) throws IOException {
+        int magic;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            magic = in.readInt();
+        }
+        return magic == DawgWordList.MAGIC ? DawgWordList.open(file) : MappedWordList.open(file);
+    }
+}
@@ -0,0 +1,61 @@
+package de.bbq.hangman.model;
+
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Loading pipeline that turns raw words into the canonical form used everywhere in the game.
+ * A canonical word is trimmed, composed to Unicode NFC, so that an umlaut written as a base letter
+ * plus a combining mark becomes the single {@link Alphabet} letter, and lower-cased with
+ * {@link Locale#ROOT}, so the result does not depend on the default locale of the machine.
+ * Words are normalized once when they are loaded; the hot paths of model and guesser compare
+ * canonical words as they are.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class WordNormalizer {
+
+    private WordNormalizer() {
+    }
+
+    /**
+     * Converts a word into canonical form.
+     *
+     * @param word The raw word
+     * @return The trimmed, NFC-composed, lower-case word
+     */
+    public static String normalize(String word) {
+        String trimmed = word.strip();
+        if (!Normalizer.isNormalized(trimmed, Normalizer.Form.NFC)) {
+            trimmed = Normalizer.normalize(trimmed, Normalizer.Form.NFC);
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds a canonical word table: every word normalized, blank words dropped, duplicates removed
+     * with the first occurrence kept, and every word interned so equal words share one String.
+     *
+     * @param words The raw words
+     * @return The canonical words in their first-occurrence order
+     */
+    public static String[] canonicalize(Collection<String> words) {
+        Set<String> unique = new LinkedHashSet<>(words.size() * 2);
+        for (String word : words) {
+            String canonical = normalize(word);
+            if (!canonical.isEmpty()) {
+                unique.add(canonical);
+            }
+        }
+        String[] table = new String[unique.size()];
+        int i = 0;
+        for (String word : unique) {
+            table[i++] = word.intern();
+        }
+        return table;
+    }
+}
@@ -0,0 +1,140 @@
+package de.bbq.hangman.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded pool of random words from a {@link WordSource} that refills itself in the background.
+ * Every word is handed out once. When the pool is half empty, a background thread draws a new
+ * reservoir sample from the source to top it up, so callers only wait for the very first pass.
+ * <p>
+ * Every refill reads the whole source, because a uniform sample needs every word: a pool of capacity c
+ * reads the source once per c/2 words handed out. The pool is meant for sources that are too large to
+ * keep in memory but can be read in a fraction of the time in which c/2 games are played; the capacity
+ * trades memory for the number of passes.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class WordPool implements Closeable {
+    /** Time between two checks while a caller waits for an empty pool */
+    private static final long POLL_MILLIS = 100;
+
+    private final WordSource source;
+    private final int capacity;
+    private final BlockingQueue<String> words;
+    private final ExecutorService refiller;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private volatile IOException failure;
+    private volatile boolean sourceEmpty;
+
+    /**
+     * Creates a pool and starts filling it.
+     *
+     * @param source   The source to sample from, read once per refill
+     * @param capacity The number of words the pool holds when full
+     * @throws IllegalArgumentException if the source cannot be read repeatedly or the capacity is not positive
+     */
+    public WordPool(WordSource source, int capacity) {
+        if (!source.isRepeatable()) {
+            throw new IllegalArgumentException(source + " can only be read once");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.source = source;
+        this.capacity = capacity;
+        this.words = new ArrayBlockingQueue<>(capacity);
+        this.refiller = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "hangman-word-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        requestRefill();
+    }
+
+    /**
+     * Takes a word from the pool, waiting for the first fill if necessary.
+     *
+     * @return A random word of the source
+     * @throws IllegalStateException if the source has no words or the pool is closed
+     * @throws UncheckedIOException if the source cannot be read
+     */
+    public String next() {
+        String word = words.poll();
+        while (word == null) {
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            if (sourceEmpty) {
+                throw new IllegalStateException(source + " contains no words");
+            }
+            if (refiller.isShutdown()) {
+                throw new IllegalStateException("Word pool is closed");
+            }
+            requestRefill();
+            try {
+                word = words.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for words", e);
+            }
+        }
+        if (words.size() <= capacity / 2) {
+            requestRefill();
+        }
+        return word;
+    }
+
+    /**
+     * Gets the number of words currently in the pool.
+     *
+     * @return The number of words that can be taken without waiting
+     */
+    public int available() {
+        return words.size();
+    }
+
+    /**
+     * Starts a background refill unless one is running.
+     */
+    private void requestRefill() {
+        if (!refiller.isShutdown() && refilling.compareAndSet(false, true)) {
+            refiller.execute(this::refill);
+        }
+    }
+
+    private void refill() {
+        try {
+            int missing = capacity - words.size();
+            if (missing > 0) {
+                String[] sample = source.sample(missing, ThreadLocalRandom.current());
+                sourceEmpty = sample.length == 0;
+                for (String word : sample) {
+                    words.offer(word);
+                }
+            }
+            failure = null;
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    /**
+     * Stops refilling the pool. Words already in the pool can still be taken.
+     */
+    @Override
+    public void close() {
+        refiller.shutdownNow();
+    }
+}
@@ -1,18 +1,33 @@
 package de.bbq.hangman.model;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Provides words for the Hangman game.
  * Contains both predefined words and methods to get random words.
+ * <p>
+ * Words can be drawn uniformly or by weight, for example by word frequency, from the whole list,
+ * from a {@link Difficulty} tier or from a range of word lengths. The tables of the lengths and of the
+ * tiers take a pass over all words, so each is built on the first draw that needs it; afterwards every
+ * draw takes constant time (a range of lengths adds a binary search over the lengths). Draws use {@link ThreadLocalRandom}, so a provider can be shared by many sessions
+ * without contending on a common seed.
+ * <p>
+ * Word lists that are too large to keep in memory can be streamed from a {@link WordSource}: either
+ * once into a uniform sample ({@link #sample(WordSource, int)}) or continuously through a {@link WordPool}
+ * that refills in the background.
  *
  * @author Christos Poulios
  * @version 1.0
  */
 public class WordProvider {
-    /** List of predefined words for the game */
+    /** List of predefined words for the game, as written by hand */
     private static final List<String> PREDEFINED_WORDS = Arrays.asList(
             "Haus",
             "Baum",
@@ -189,23 +204,395 @@ public class WordProvider {
             "Evolution"
     );
 
-    /** Random number generator */
-    private final Random random;
+    /** Canonical table of the predefined words, shared by all providers and the computer guesser */
+    private static final WordList PREDEFINED_TABLE = new ArrayWordList(WordNormalizer.canonicalize(PREDEFINED_WORDS));
+
+    /** Uniform providers over the words of a dictionary index, built once per index and shared by all sessions */
+    private static final Map<DictionaryIndex, WordProvider> SHARED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Number of pool words tried before a draw from a tier or length range gives up */
+    private static final int MAX_POOL_DRAWS = 1000;
+
+    /** Words to choose from, null when streaming from a pool */
+    private final WordList words;
+
+    /** Streamed words, null when drawing from a word list */
+    private final WordPool pool;
+
+    /** Weight of each word, null for uniform draws */
+    private final double[] weights;
+
+    /** Weighted draws over all words, null for uniform draws */
+    private final AliasTable weighted;
+
+    /** Words grouped by length, built on the first draw from a length range */
+    private volatile LengthTables lengthTables;
+
+    /** Words grouped by difficulty tier, built on the first draw from a tier */
+    private volatile TierTables tierTables;
 
     /**
-     * Constructs a new WordProvider with a random number generator.
+     * Constructs a new WordProvider for the predefined words.
      */
     public WordProvider() {
-        this.random = new Random();
+        this(PREDEFINED_TABLE);
+    }
+
+    /**
+     * Gets the canonical table of the predefined words: lower case, without duplicates and interned.
+     *
+     * @return The shared word table
+     */
+    public static WordList predefinedWords() {
+        return PREDEFINED_TABLE;
+    }
+
+    /**
+     * Constructs a new WordProvider that draws uniformly from the given words.
+     *
+     * @param words The canonical words to choose from, for example a {@link MappedWordList}
+     * @throws IllegalArgumentException if the word list is empty
+     */
+    public WordProvider(WordList words) {
+        this(words, null);
+    }
+
+    /**
+     * Constructs a new WordProvider that draws words with the given weights.
+     *
+     * @param words   The canonical words to choose from, for example a {@link MappedWordList}
+     * @param weights The weight of each word, for example its frequency, or null for uniform draws
+     * @throws IllegalArgumentException if the word list is empty or the weights do not fit the words
+     */
+    public WordProvider(WordList words, double[] weights) {
+        if (words.size() == 0) {
+            throw new IllegalArgumentException("Word list cannot be empty");
+        }
+        if (weights != null && weights.length != words.size()) {
+            throw new IllegalArgumentException("Need one weight per word");
+        }
+        this.words = words;
+        this.pool = null;
+        this.weights = weights;
+        this.weighted = weights != null ? new AliasTable(weights) : null;
+    }
+
+    /**
+     * Constructs a new WordProvider that hands out the words of a pool, each one once.
+     * Draws from a tier or a length range take pool words until one fits.
+     *
+     * @param pool The pool of streamed words
+     */
+    public WordProvider(WordPool pool) {
+        this.words = null;
+        this.pool = pool;
+        this.weights = null;
+        this.weighted = null;
+    }
+
+    /**
+     * Creates a WordProvider for a uniform random sample of a streamed word list.
+     * The source is read once and only the sample is kept in memory.
+     *
+     * @param source The words to sample from
+     * @param k      The number of words to keep
+     * @return The provider for the sampled words
+     * @throws IOException              if the source cannot be read
+     * @throws IllegalArgumentException if the source has no words
+     */
+    public static WordProvider sample(WordSource source, int k) throws IOException {
+        String[] sample = source.sample(k, ThreadLocalRandom.current());
+        return new WordProvider(new ArrayWordList(WordNormalizer.canonicalize(Arrays.asList(sample))));
+    }
+
+    /**
+     * Creates a WordProvider that draws the words of a list by their frequency.
+     * Each line of the frequency list holds a word and its frequency, separated by white space, for example
+     * {@code haus 5120}. Frequencies of words that occur on several lines are added up, and words of the list
+     * without a frequency are never drawn.
+     *
+     * @param words       The canonical words to choose from
+     * @param frequencies The frequency list, plain or gzip-compressed
+     * @return The provider drawing by frequency
+     * @throws IOException              if the frequency list cannot be read
+     * @throws IllegalArgumentException if a line has no valid frequency or no word of the list has a frequency
+     */
+    public static WordProvider weighted(WordList words, WordSource frequencies) throws IOException {
+        Map<String, Double> frequency = new HashMap<>();
+        frequencies.forEach(line -> {
+            int split = line.length() - 1;
+            while (split >= 0 && !Character.isWhitespace(line.charAt(split))) {
+                split--;
+            }
+            try {
+                frequency.merge(line.substring(0, Math.max(split, 0)).strip(),
+                        Double.parseDouble(line.substring(split + 1)), Double::sum);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("No frequency in line: " + line);
+            }
+        });
+        double[] weights = new double[words.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = frequency.getOrDefault(words.get(i), 0.0);
+        }
+        return new WordProvider(words, weights);
+    }
+
+    /**
+     * Gets the provider that draws uniformly from the words of a dictionary index.
+     * It is created on the first call and shared afterwards, so sessions and guessers
+     * that play on the same dictionary also share its length and tier tables.
+     *
+     * @param index The dictionary index
+     * @return The shared provider of the index
+     * @throws IllegalArgumentException if the index is empty
+     */
+    public static WordProvider of(DictionaryIndex index) {
+        return SHARED.computeIfAbsent(index, key -> new WordProvider(key.words()));
+    }
+
+    /**
+     * Gets the words grouped by length, building them on first use.
+     */
+    private LengthTables lengthTables() {
+        LengthTables tables = lengthTables;
+        if (tables == null) {
+            synchronized (this) {
+                tables = lengthTables;
+                if (tables == null) {
+                    tables = new LengthTables(words, weights);
+                    lengthTables = tables;
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Gets the words grouped by difficulty tier, building them on first use.
+     */
+    private TierTables tierTables() {
+        TierTables tables = tierTables;
+        if (tables == null) {
+            synchronized (this) {
+                tables = tierTables;
+                if (tables == null) {
+                    tables = new TierTables(words, weights);
+                    tierTables = tables;
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static double[] gather(double[] weights, int[] indices, int from, int to) {
+        double[] gathered = new double[to - from];
+        for (int i = from; i < to; i++) {
+            gathered[i - from] = weights[indices[i]];
+        }
+        return gathered;
     }
 
     /**
-     * Gets a random word from the predefined list.
+     * Gets a random word from the word list.
+     * Only the selected word is turned into a String.
      *
      * @return A randomly selected word
      */
     public String getRandomWord() {
-        int index = random.nextInt(PREDEFINED_WORDS.size());
-        return PREDEFINED_WORDS.get(index);
+        if (pool != null) {
+            return pool.next();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = weighted != null ? weighted.sample(random) : random.nextInt(words.size());
+        return words.get(index);
+    }
+
+    /**
+     * Gets a random word of a difficulty tier.
+     *
+     * @param difficulty The difficulty tier
+     * @return A randomly selected word of the tier
+     * @throws IllegalArgumentException if the word list has no word of the tier
+     */
+    public String getRandomWord(Difficulty difficulty) {
+        if (pool != null) {
+            for (int i = 0; i < MAX_POOL_DRAWS; i++) {
+                String word = pool.next();
+                if (Difficulty.of(word.toCharArray(), word.length()) == difficulty) {
+                    return word;
+                }
+            }
+            throw new IllegalArgumentException("No words of difficulty " + difficulty);
+        }
+        TierTables tables = tierTables();
+        int[] tier = tables.tiers[difficulty.ordinal()];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (tables.tierWeights != null) {
+            AliasTable tierWeights = tables.tierWeights[difficulty.ordinal()];
+            if (tierWeights == null) {
+                throw new IllegalArgumentException("No words of difficulty " + difficulty);
+            }
+            return words.get(tier[tierWeights.sample(random)]);
+        }
+        if (tier.length == 0) {
+            throw new IllegalArgumentException("No words of difficulty " + difficulty);
+        }
+        return words.get(tier[random.nextInt(tier.length)]);
+    }
+
+    /**
+     * Gets a random word with a length in the given range.
+     *
+     * @param minLength The smallest length, inclusive
+     * @param maxLength The largest length, inclusive
+     * @return A randomly selected word of the length range
+     * @throws IllegalArgumentException if the word list has no word in the range
+     */
+    public String getRandomWord(int minLength, int maxLength) {
+        if (pool != null) {
+            for (int i = 0; i < MAX_POOL_DRAWS; i++) {
+                String word = pool.next();
+                if (word.length() >= minLength && word.length() <= maxLength) {
+                    return word;
+                }
+            }
+            throw new IllegalArgumentException("No words with length " + minLength + " to " + maxLength);
+        }
+        int from = Math.max(1, minLength);
+        int to = Math.min(maxLength, words.maxLength());
+        if (from > to) {
+            throw new IllegalArgumentException("No words with length " + minLength + " to " + maxLength);
+        }
+        LengthTables tables = lengthTables();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (tables.weightBefore != null) {
+            double low = tables.weightBefore[from];
+            double high = tables.weightBefore[to + 1];
+            if (!(high > low)) {
+                throw new IllegalArgumentException("No words with length " + minLength + " to " + maxLength);
+            }
+            // Pick the length by its share of the weight, then the word within the length
+            int length = tables.lengthOf(low + random.nextDouble() * (high - low), from, to);
+            return words.get(tables.byLength[tables.lengthStarts[length] + tables.lengthWeights[length].sample(random)]);
+        }
+        int start = tables.lengthStarts[from];
+        int end = tables.lengthStarts[to + 1];
+        if (start == end) {
+            throw new IllegalArgumentException("No words with length " + minLength + " to " + maxLength);
+        }
+        return words.get(tables.byLength[random.nextInt(start, end)]);
+    }
+
+    /**
+     * Words of a list grouped by length, with weighted draws within each length for weighted providers.
+     */
+    private static final class LengthTables {
+        /** Word indices ordered by length */
+        private final int[] byLength;
+
+        /** Start of each length in {@link #byLength}, indexed by length, with one extra entry for the end */
+        private final int[] lengthStarts;
+
+        /** Total weight of all words shorter than each length, only for weighted draws */
+        private final double[] weightBefore;
+
+        /** Weighted draws within each length, only for weighted draws */
+        private final AliasTable[] lengthWeights;
+
+        private LengthTables(WordList words, double[] weights) {
+            // A counting sort by length; the lengths are read once into a temporary array
+            int count = words.size();
+            char[] chars = new char[words.maxLength()];
+            int[] lengths = new int[count];
+            this.lengthStarts = new int[words.maxLength() + 2];
+            for (int i = 0; i < count; i++) {
+                lengths[i] = words.getChars(i, chars);
+                lengthStarts[lengths[i] + 1]++;
+            }
+            for (int length = 1; length < lengthStarts.length; length++) {
+                lengthStarts[length] += lengthStarts[length - 1];
+            }
+            this.byLength = new int[count];
+            int[] next = lengthStarts.clone();
+            for (int i = 0; i < count; i++) {
+                byLength[next[lengths[i]]++] = i;
+            }
+
+            if (weights == null) {
+                this.weightBefore = null;
+                this.lengthWeights = null;
+                return;
+            }
+            this.weightBefore = new double[lengthStarts.length];
+            this.lengthWeights = new AliasTable[lengthStarts.length - 1];
+            for (int length = 0; length < lengthWeights.length; length++) {
+                double[] gathered = gather(weights, byLength, lengthStarts[length], lengthStarts[length + 1]);
+                double total = Arrays.stream(gathered).sum();
+                weightBefore[length + 1] = weightBefore[length] + total;
+                lengthWeights[length] = total > 0 ? new AliasTable(gathered) : null;
+            }
+        }
+
+        /**
+         * Finds the length whose weight interval contains a point, skipping lengths without weight.
+         */
+        private int lengthOf(double point, int from, int to) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (weightBefore[middle + 1] <= point) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            while (lengthWeights[low] == null) {
+                low = low > from ? low - 1 : low + 1;
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Words of a list grouped by difficulty tier, with weighted draws within each tier for weighted providers.
+     */
+    private static final class TierTables {
+        /** Word indices of each difficulty tier */
+        private final int[][] tiers;
+
+        /** Weighted draws within each difficulty tier, only for weighted draws */
+        private final AliasTable[] tierWeights;
+
+        private TierTables(WordList words, double[] weights) {
+            // Every word is classified twice, once to size the tiers and once to fill them,
+            // so no per-word array is needed
+            int count = words.size();
+            char[] chars = new char[words.maxLength()];
+            int[] tierSizes = new int[Difficulty.values().length];
+            for (int i = 0; i < count; i++) {
+                tierSizes[Difficulty.of(chars, words.getChars(i, chars)).ordinal()]++;
+            }
+            this.tiers = new int[tierSizes.length][];
+            for (int tier = 0; tier < tiers.length; tier++) {
+                tiers[tier] = new int[tierSizes[tier]];
+            }
+            int[] next = new int[tiers.length];
+            for (int i = 0; i < count; i++) {
+                int tier = Difficulty.of(chars, words.getChars(i, chars)).ordinal();
+                tiers[tier][next[tier]++] = i;
+            }
+
+            if (weights == null) {
+                this.tierWeights = null;
+                return;
+            }
+            this.tierWeights = new AliasTable[tiers.length];
+            for (int tier = 0; tier < tiers.length; tier++) {
+                double[] gathered = gather(weights, tiers[tier], 0, tiers[tier].length);
+                tierWeights[tier] = Arrays.stream(gathered).sum() > 0 ? new AliasTable(gathered) : null;
+            }
+        }
     }
 }
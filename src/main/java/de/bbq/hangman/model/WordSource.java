@@ -0,0 +1,225 @@
+package de.bbq.hangman.model;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Text source with one word per line that is read as a stream instead of being loaded into memory.
+ * Files are read through NIO with a large buffer, gzip-compressed files are recognized by their
+ * magic bytes and decompressed on the fly. Lines are split on raw bytes and only turned into
+ * Strings when they are needed, so a pass over a file that only picks a few words creates
+ * few objects. Blank lines are skipped, words are brought into canonical form by {@link WordNormalizer}.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class WordSource {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int GZIP_MAGIC = 0x8B1F;
+
+    private final String name;
+    private final Opener opener;
+    private final boolean repeatable;
+    private boolean consumed;
+
+    /**
+     * Opens the raw bytes of a source.
+     */
+    @FunctionalInterface
+    private interface Opener {
+        InputStream open() throws IOException;
+    }
+
+    private WordSource(String name, Opener opener, boolean repeatable) {
+        this.name = name;
+        this.opener = opener;
+        this.repeatable = repeatable;
+    }
+
+    /**
+     * Creates a source for a text file, plain or gzip-compressed.
+     *
+     * @param file The text file
+     * @return The source, read anew on every pass
+     */
+    public static WordSource of(Path file) {
+        return new WordSource(file.toString(), () -> Files.newInputStream(file), true);
+    }
+
+    /**
+     * Creates a source for the standard input, plain or gzip-compressed.
+     * The standard input can only be read once.
+     *
+     * @return The source
+     */
+    public static WordSource stdin() {
+        return new WordSource("stdin", () -> System.in, false);
+    }
+
+    /**
+     * Checks if the source can be read more than once.
+     *
+     * @return true for files, false for the standard input
+     */
+    public boolean isRepeatable() {
+        return repeatable;
+    }
+
+    /**
+     * Reads every word of the source.
+     *
+     * @param action Called with each word in canonical form
+     * @throws IOException if the source cannot be read
+     */
+    public void forEach(Consumer<String> action) throws IOException {
+        try (LineReader reader = new LineReader(open())) {
+            while (reader.next()) {
+                if (!reader.isBlank()) {
+                    String word = WordNormalizer.normalize(reader.line());
+                    if (!word.isEmpty()) {
+                        action.accept(word);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws up to k words uniformly at random in a single pass (reservoir sampling).
+     * Memory stays O(k) however long the source is, and a line is only decoded when it enters the sample.
+     * Words that occur several times in the source can be drawn several times.
+     *
+     * @param k      The number of words to draw
+     * @param random The source of randomness
+     * @return The drawn words in random order, fewer than k if the source has fewer words
+     * @throws IOException if the source cannot be read
+     */
+    public String[] sample(int k, RandomGenerator random) throws IOException {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Sample size must be positive");
+        }
+        String[] reservoir = new String[k];
+        long seen = 0;
+        try (LineReader reader = new LineReader(open())) {
+            while (reader.next()) {
+                if (reader.isBlank()) {
+                    continue;
+                }
+                // Word n replaces a random sample slot with probability k / n
+                long slot = seen < k ? seen : random.nextLong(seen + 1);
+                if (slot < k) {
+                    String word = WordNormalizer.normalize(reader.line());
+                    if (word.isEmpty()) {
+                        continue;
+                    }
+                    reservoir[(int) slot] = word;
+                }
+                seen++;
+            }
+        }
+
+        // The slots of a reservoir are not in random order, so shuffle them
+        String[] sample = seen < k ? Arrays.copyOf(reservoir, (int) seen) : reservoir;
+        for (int i = sample.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String swap = sample[i];
+            sample[i] = sample[j];
+            sample[j] = swap;
+        }
+        return sample;
+    }
+
+    /**
+     * Opens the bytes of the source, decompressing them if they start with the gzip magic bytes.
+     *
+     * @return The stream of text bytes
+     * @throws IOException if the source cannot be opened
+     */
+    private synchronized InputStream open() throws IOException {
+        if (!repeatable && consumed) {
+            throw new IllegalStateException(name + " can only be read once");
+        }
+        consumed = true;
+        InputStream in = new BufferedInputStream(opener.open(), BUFFER_SIZE);
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        return magic == GZIP_MAGIC ? new BufferedInputStream(new GZIPInputStream(in, BUFFER_SIZE), BUFFER_SIZE) : in;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Splits a byte stream into lines without decoding them.
+     * The bytes of the current line stay in a reusable buffer until the next line is read.
+     */
+    private static final class LineReader implements AutoCloseable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private byte[] line = new byte[64];
+        private int length;
+        private boolean blank;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads the next line.
+         *
+         * @return false at the end of the stream
+         */
+        boolean next() throws IOException {
+            length = 0;
+            blank = true;
+            boolean any = false;
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return any;
+                    }
+                }
+                any = true;
+                byte b = buffer[position++];
+                if (b == '\n') {
+                    return true;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+                // Bytes of multi-byte UTF-8 characters are negative, so they count as content
+                blank &= b >= 0 && b <= ' ';
+            }
+        }
+
+        boolean isBlank() {
+            return blank;
+        }
+
+        String line() {
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
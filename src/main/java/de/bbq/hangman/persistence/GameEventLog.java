@@ -0,0 +1,690 @@
+package de.bbq.hangman.persistence;
+
+import de.bbq.hangman.model.GameListener;
+import de.bbq.hangman.model.HangmanModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Crash-safe journal of all running games, kept as an append-only write-ahead log.
+ * Every state change of a model attached to a session is encoded as a small binary event and
+ * appended to an in-memory batch; the caller never waits for the disk. A single writer thread
+ * collects the events of all sessions for one commit interval, writes them with one write and
+ * syncs the file once per batch (group commit). A crash therefore loses at most the last
+ * commit interval.
+ * <p>
+ * The log also keeps the events of every open session in memory. When the log file grows past a
+ * threshold, the writer stores these events as a snapshot and starts a new, empty log, so the
+ * files stay proportional to the running games and not to the games ever played. On startup the
+ * snapshot and the log are read into memory; a game is only replayed into a model when its
+ * session is resumed.
+ * <p>
+ * A session is attached to at most one model at a time. Sessions that are not attached and were
+ * never ended, for example because their client never came back, expire after a time to live: the
+ * writer ends them in the log like {@link #endSession(long)} does. The time counts from the moment
+ * the session was detached, or from the opening of the journal for recovered sessions.
+ * <p>
+ * Files in the journal directory (all numbers big-endian, texts as int length and UTF-8):
+ * <pre>
+ * events.log    int magic, int version, long generation, then records of
+ *               int payload length, int CRC32C, long session, byte type, event data
+ * snapshot.bin  int magic, int version, long generation of the log that follows, int sessions,
+ *               then per session long session, int length, events
+ * </pre>
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class GameEventLog implements Closeable {
+    /** Default time the writer collects events before it syncs them to disk */
+    public static final Duration DEFAULT_COMMIT_INTERVAL = Duration.ofMillis(20);
+
+    /** Default time after which a session without a client expires */
+    public static final Duration DEFAULT_SESSION_TTL = Duration.ofDays(1);
+
+    /** Longest time between two searches for expired sessions */
+    private static final long EXPIRY_CHECK_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final int LOG_MAGIC = 0x484D4556; // "HMEV"
+    private static final int SNAPSHOT_MAGIC = 0x484D5353; // "HMSS"
+    private static final int VERSION = 1;
+    private static final int LOG_HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /** Size of the log file after which the open sessions are compacted into a snapshot */
+    private static final long SNAPSHOT_THRESHOLD = 64L << 20;
+
+    /** Size of the pending batch at which appending sessions wait for the writer */
+    private static final int MAX_PENDING = 8 << 20;
+
+    private static final byte GAME_STARTED = 1;
+    private static final byte LETTER_GUESSED = 2;
+    private static final byte WORD_GUESSED = 3;
+    private static final byte SESSION_ENDED = 4;
+
+    private final Path snapshotFile;
+    private final FileChannel log;
+    private final long commitIntervalNanos;
+    private final long sessionTtlNanos;
+    private final long expiryCheckNanos;
+    private final Thread writer;
+    private long generation;
+    private long lastExpiryCheck;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition eventsPending = lock.newCondition();
+    private final Condition eventsCommitted = lock.newCondition();
+    private final CRC32C crc = new CRC32C();
+    /** Events of all open sessions, guarded by the lock */
+    private final Map<Long, SessionEvents> sessions = new HashMap<>();
+    /** Events appended but not yet handed to the writer, guarded by the lock */
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appendedBatches;
+    private long committedBatches;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Opens the journal in a directory, recovers the sessions stored there and starts the writer.
+     *
+     * @param directory      The journal directory, created if missing
+     * @param commitInterval The time the writer collects events before it syncs them to disk
+     * @throws IOException if the journal cannot be read or created
+     */
+    public GameEventLog(Path directory, Duration commitInterval) throws IOException {
+        this(directory, commitInterval, DEFAULT_SESSION_TTL);
+    }
+
+    /**
+     * Opens the journal in a directory with a time to live for sessions without a client.
+     *
+     * @param directory      The journal directory, created if missing
+     * @param commitInterval The time the writer collects events before it syncs them to disk
+     * @param sessionTtl     The time after which a session that is not attached expires
+     * @throws IOException if the journal cannot be read or created
+     */
+    public GameEventLog(Path directory, Duration commitInterval, Duration sessionTtl) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotFile = directory.resolve("snapshot.bin");
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.sessionTtlNanos = sessionTtl.toNanos();
+        this.expiryCheckNanos = Math.min(sessionTtlNanos, EXPIRY_CHECK_NANOS);
+        this.lastExpiryCheck = System.nanoTime();
+        long snapshotGeneration = readSnapshot();
+        this.log = FileChannel.open(directory.resolve("events.log"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validEnd = replayLog(snapshotGeneration);
+        if (validEnd < 0) {
+            // No log, or a log already covered by the snapshot because a compaction was interrupted
+            resetLog(snapshotGeneration);
+        } else {
+            log.truncate(validEnd);
+            log.position(validEnd);
+        }
+        this.writer = Thread.ofPlatform().daemon().name("hangman-event-log").start(this::runWriter);
+    }
+
+    /**
+     * Creates a new session id that is not used by any stored session.
+     *
+     * @return The session id, always positive
+     */
+    public long newSessionId() {
+        lock.lock();
+        try {
+            long sessionId;
+            do {
+                sessionId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            } while (sessions.containsKey(sessionId));
+            sessions.put(sessionId, new SessionEvents());
+            return sessionId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if the journal holds a session.
+     *
+     * @param sessionId The session id
+     * @return true if the session was stored and has not ended
+     */
+    public boolean hasSession(long sessionId) {
+        lock.lock();
+        try {
+            return sessions.containsKey(sessionId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of open sessions in the journal.
+     *
+     * @return The number of sessions
+     */
+    public int sessionCount() {
+        lock.lock();
+        try {
+            return sessions.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Attaches a model to a session unless another model is attached to it. The stored game of the
+     * session, if any, is replayed into the model first; from then on every state change of the model
+     * is journaled until the session is detached or ended.
+     *
+     * @param sessionId The session id
+     * @param model     The model of the session
+     * @return true if the model was attached, false if the session is attached to another model
+     */
+    public boolean attach(long sessionId, HangmanModel model) {
+        byte[] events;
+        lock.lock();
+        try {
+            SessionEvents stored = sessions.computeIfAbsent(sessionId, key -> new SessionEvents());
+            if (stored.attached) {
+                return false;
+            }
+            stored.attached = true;
+            events = Arrays.copyOf(stored.data, stored.length);
+        } finally {
+            lock.unlock();
+        }
+
+        model.setGameListener(null);
+        replay(ByteBuffer.wrap(events), model);
+        model.setGameListener(new SessionListener(sessionId));
+        return true;
+    }
+
+    /**
+     * Detaches the model from a session that is not ended, so the session can be resumed by another
+     * model. From now on the session expires if it is not attached again within the time to live.
+     * The detached model must not be changed any more.
+     *
+     * @param sessionId The session id
+     */
+    public void detach(long sessionId) {
+        lock.lock();
+        try {
+            SessionEvents stored = sessions.get(sessionId);
+            if (stored != null) {
+                stored.attached = false;
+                stored.detachedAt = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a session, so it is no longer stored.
+     *
+     * @param sessionId The session id
+     */
+    public void endSession(long sessionId) {
+        append(sessionId, SESSION_ENDED, (char) 0, null);
+    }
+
+    /**
+     * Waits until all events appended so far are on disk.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            long target = pending.position() > 0 ? appendedBatches + 1 : appendedBatches;
+            while (committedBatches < target && failure == null && writer.isAlive()) {
+                eventsCommitted.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends one event to the pending batch.
+     *
+     * @param sessionId The session of the event
+     * @param type      The event type
+     * @param letter    The guessed letter of a {@link #LETTER_GUESSED} event
+     * @param text      The word of a {@link #GAME_STARTED} or {@link #WORD_GUESSED} event
+     */
+    private void append(long sessionId, byte type, char letter, String text) {
+        byte[] bytes = text != null ? text.getBytes(StandardCharsets.UTF_8) : null;
+        lock.lock();
+        try {
+            while (pending.position() > MAX_PENDING && failure == null && !closed) {
+                eventsCommitted.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException(failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Event log is closed");
+            }
+            appendRecord(sessionId, type, letter, bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Encodes one event into the pending batch and applies it to the session table. The lock must be held.
+     *
+     * @param sessionId The session of the event
+     * @param type      The event type
+     * @param letter    The guessed letter of a {@link #LETTER_GUESSED} event
+     * @param bytes     The UTF-8 encoded word of a {@link #GAME_STARTED} or {@link #WORD_GUESSED} event
+     */
+    private void appendRecord(long sessionId, byte type, char letter, byte[] bytes) {
+        int eventSize = 1 + (bytes != null ? Integer.BYTES + bytes.length : type == LETTER_GUESSED ? Character.BYTES : 0);
+        ensurePending(RECORD_HEADER_SIZE + Long.BYTES + eventSize);
+        int start = pending.position();
+        pending.position(start + RECORD_HEADER_SIZE);
+        pending.putLong(sessionId).put(type);
+        if (bytes != null) {
+            pending.putInt(bytes.length).put(bytes);
+        } else if (type == LETTER_GUESSED) {
+            pending.putChar(letter);
+        }
+        int payloadStart = start + RECORD_HEADER_SIZE;
+        int payloadLength = pending.position() - payloadStart;
+        crc.reset();
+        crc.update(pending.array(), payloadStart, payloadLength);
+        pending.putInt(start, payloadLength).putInt(start + Integer.BYTES, (int) crc.getValue());
+
+        if (type == SESSION_ENDED) {
+            sessions.remove(sessionId);
+        } else {
+            SessionEvents events = sessions.computeIfAbsent(sessionId, key -> new SessionEvents());
+            if (type == GAME_STARTED) {
+                events.length = 0;
+            }
+            events.append(pending.array(), payloadStart + Long.BYTES, eventSize);
+        }
+        if (start == 0) {
+            eventsPending.signal();
+        }
+    }
+
+    /**
+     * Ends the sessions that have not been attached for longer than the time to live.
+     * Runs at most once per check interval; the lock must be held.
+     */
+    private void expireSessions() {
+        long now = System.nanoTime();
+        if (now - lastExpiryCheck < expiryCheckNanos) {
+            return;
+        }
+        lastExpiryCheck = now;
+        List<Long> expired = new ArrayList<>();
+        for (Map.Entry<Long, SessionEvents> session : sessions.entrySet()) {
+            SessionEvents events = session.getValue();
+            if (!events.attached && now - events.detachedAt >= sessionTtlNanos) {
+                expired.add(session.getKey());
+            }
+        }
+        for (long sessionId : expired) {
+            appendRecord(sessionId, SESSION_ENDED, (char) 0, null);
+        }
+    }
+
+    private void ensurePending(int size) {
+        if (pending.remaining() < size) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + size));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    /**
+     * Writes the pending batches until the log is closed.
+     */
+    private void runWriter() {
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    expireSessions();
+                    while (pending.position() == 0 && !closed) {
+                        // Wake up now and then to expire sessions while no events come in
+                        eventsPending.awaitNanos(expiryCheckNanos);
+                        expireSessions();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (!closed) {
+                    // Let more sessions join the batch, so one sync covers all of them
+                    TimeUnit.NANOSECONDS.sleep(commitIntervalNanos);
+                }
+
+                ByteBuffer batch;
+                Map<Long, byte[]> snapshot = null;
+                boolean stop;
+                lock.lock();
+                try {
+                    batch = pending;
+                    pending = spare;
+                    spare = batch;
+                    appendedBatches++;
+                    stop = closed;
+                    if (log.size() + batch.position() > SNAPSHOT_THRESHOLD) {
+                        snapshot = copySessions();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    log.write(batch);
+                }
+                log.force(false);
+                batch.clear();
+                if (snapshot != null) {
+                    writeSnapshot(snapshot, generation + 1);
+                    resetLog(generation + 1);
+                }
+
+                lock.lock();
+                try {
+                    committedBatches = appendedBatches;
+                    eventsCommitted.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                if (stop) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(new IOException("Event log writer interrupted", e));
+        }
+    }
+
+    private void fail(IOException e) {
+        lock.lock();
+        try {
+            failure = e;
+            eventsCommitted.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Long, byte[]> copySessions() {
+        Map<Long, byte[]> copy = new HashMap<>(sessions.size() * 2);
+        for (Map.Entry<Long, SessionEvents> session : sessions.entrySet()) {
+            copy.put(session.getKey(), Arrays.copyOf(session.getValue().data, session.getValue().length));
+        }
+        return copy;
+    }
+
+    /**
+     * Stores the events of the open sessions in a new snapshot file, replacing the old one atomically.
+     *
+     * @param snapshot   The events per session
+     * @param generation The generation of the log that continues after the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeSnapshot(Map<Long, byte[]> snapshot, long generation) throws IOException {
+        Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Channels.newOutputStream(channel), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<Long, byte[]> session : snapshot.entrySet()) {
+                out.writeLong(session.getKey());
+                out.writeInt(session.getValue().length);
+                out.write(session.getValue());
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Empties the log and starts a new generation.
+     *
+     * @param generation The generation of the new log
+     * @throws IOException if the log cannot be written
+     */
+    private void resetLog(long generation) throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+        header.putInt(LOG_MAGIC).putInt(VERSION).putLong(generation).flip();
+        log.write(header, 0);
+        log.force(true);
+        log.position(LOG_HEADER_SIZE);
+        this.generation = generation;
+    }
+
+    /**
+     * Reads the snapshot into the session table.
+     *
+     * @return The generation of the log that follows the snapshot, 0 if there is no snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    private long readSnapshot() throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a snapshot file: " + snapshotFile);
+            }
+            long snapshotGeneration = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long sessionId = in.readLong();
+                SessionEvents events = new SessionEvents();
+                events.data = new byte[in.readInt()];
+                events.length = events.data.length;
+                in.readFully(events.data);
+                sessions.put(sessionId, events);
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    /**
+     * Applies the records of the log to the session table. Reading stops at the first incomplete or
+     * damaged record, which can only be the tail written during a crash.
+     *
+     * @param snapshotGeneration The generation of the log that follows the snapshot
+     * @return The end of the last valid record, or -1 if the log is missing or older than the snapshot
+     * @throws IOException if the log cannot be read
+     */
+    private long replayLog(long snapshotGeneration) throws IOException {
+        long size = log.size();
+        if (size < LOG_HEADER_SIZE) {
+            return -1;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && log.read(buffer, buffer.position()) >= 0) {
+            // Read the whole log, it is bounded by the snapshot threshold
+        }
+        if (buffer.getInt(0) != LOG_MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an event log file");
+        }
+        long logGeneration = buffer.getLong(8);
+        if (logGeneration < snapshotGeneration) {
+            return -1;
+        }
+        generation = logGeneration;
+
+        byte[] payload = buffer.array();
+        int position = LOG_HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= size) {
+            int length = buffer.getInt(position);
+            int checksum = buffer.getInt(position + Integer.BYTES);
+            if (length < Long.BYTES + 1 || position + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+            int payloadStart = position + RECORD_HEADER_SIZE;
+            crc.reset();
+            crc.update(payload, payloadStart, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            long sessionId = buffer.getLong(payloadStart);
+            byte type = buffer.get(payloadStart + Long.BYTES);
+            if (type == SESSION_ENDED) {
+                sessions.remove(sessionId);
+            } else {
+                SessionEvents events = sessions.computeIfAbsent(sessionId, key -> new SessionEvents());
+                if (type == GAME_STARTED) {
+                    events.length = 0;
+                }
+                events.append(payload, payloadStart + Long.BYTES, length - Long.BYTES);
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    /**
+     * Replays the events of a session into a model.
+     *
+     * @param events The events
+     * @param model  The model without listener
+     * @return true if the events contain a game
+     */
+    private static boolean replay(ByteBuffer events, HangmanModel model) {
+        boolean started = false;
+        while (events.hasRemaining()) {
+            byte type = events.get();
+            switch (type) {
+                case GAME_STARTED -> {
+                    model.initializeGame(readText(events));
+                    started = true;
+                }
+                case LETTER_GUESSED -> model.guessLetter(events.getChar());
+                case WORD_GUESSED -> model.guessWord(readText(events));
+                default -> throw new IllegalStateException("Unknown event type " + type);
+            }
+        }
+        return started;
+    }
+
+    private static String readText(ByteBuffer events) {
+        int length = events.getInt();
+        String text = new String(events.array(), events.position(), length, StandardCharsets.UTF_8);
+        events.position(events.position() + length);
+        return text;
+    }
+
+    /**
+     * Writes all pending events, stops the writer and closes the log file.
+     *
+     * @throws IOException if the last events cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            eventsPending.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Events of one session since the start of its current game.
+     */
+    private static final class SessionEvents {
+        private byte[] data = new byte[32];
+        private int length;
+        private boolean attached;
+        private long detachedAt = System.nanoTime();
+
+        private void append(byte[] source, int offset, int count) {
+            if (length + count > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+            }
+            System.arraycopy(source, offset, data, length, count);
+            length += count;
+        }
+    }
+
+    /**
+     * Journals the state changes of the model of one session.
+     */
+    private final class SessionListener implements GameListener {
+        private final long sessionId;
+
+        private SessionListener(long sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void gameStarted(String word) {
+            append(sessionId, GAME_STARTED, (char) 0, word);
+        }
+
+        @Override
+        public void letterGuessed(char letter) {
+            append(sessionId, LETTER_GUESSED, letter, null);
+        }
+
+        @Override
+        public void wordGuessed(String word) {
+            append(sessionId, WORD_GUESSED, (char) 0, word);
+        }
+    }
+}
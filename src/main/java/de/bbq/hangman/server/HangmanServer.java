@@ -0,0 +1,279 @@
+package de.bbq.hangman.server;
+
+import de.bbq.hangman.controller.HangmanController;
+import de.bbq.hangman.controller.PacingPolicy;
+import de.bbq.hangman.model.DictionaryIndex;
+import de.bbq.hangman.model.HangmanModel;
+import de.bbq.hangman.model.WordPool;
+import de.bbq.hangman.model.WordProvider;
+import de.bbq.hangman.persistence.GameEventLog;
+import de.bbq.hangman.view.ChannelSink;
+import de.bbq.hangman.view.HangmanView;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Network server running many Hangman games at once.
+ * Clients connect over TCP and play with the same text lines the console shows, one line per input.
+ * Every connection is a session running the regular model, view and controller on its own virtual
+ * thread, so idle sessions only cost their small buffers and a parked stack. The view writes each
+ * turn to the connection in a single write, and the computer guess mode sleeps between its moves,
+ * which parks the virtual thread of the session without holding a carrier thread.
+ * <p>
+ * With a {@link GameEventLog} every session gets a number and its games are journaled, so a client
+ * can resume an unfinished game after a disconnect or a restart of the server. A session is played
+ * by one client at a time; a second client asking for it gets a new session. Closing the server
+ * disconnects the running sessions, so they end before the journal is closed.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class HangmanServer implements Closeable {
+    /** Default maximum number of concurrent sessions */
+    public static final int DEFAULT_MAX_SESSIONS = 50_000;
+
+    /** Time after which a session without input is closed */
+    private static final int IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    /** Size of the input buffer of a session */
+    private static final int BUFFER_SIZE = 512;
+
+    private static final String SERVER_FULL = "Der Server ist voll. Bitte versuche es später noch einmal.";
+
+    private final ServerSocket serverSocket;
+    private final DictionaryIndex index;
+    private final GameEventLog journal;
+    private final Semaphore sessions;
+    private final Set<Socket> liveSockets = ConcurrentHashMap.newKeySet();
+    private volatile PacingPolicy pacingPolicy = PacingPolicy.fixedDelay(HangmanController.DEFAULT_COMPUTER_DELAY);
+    private volatile WordProvider wordProvider;
+
+    /**
+     * Constructs a HangmanServer listening on a local port.
+     *
+     * @param port        The TCP port to listen on, 0 for any free port
+     * @param index       The dictionary shared by all sessions, or null for the predefined words
+     * @param maxSessions The maximum number of concurrent sessions
+     * @throws IOException if the port cannot be opened
+     */
+    public HangmanServer(int port, DictionaryIndex index, int maxSessions) throws IOException {
+        this(port, index, maxSessions, null);
+    }
+
+    /**
+     * Constructs a HangmanServer listening on a local port that journals all sessions.
+     *
+     * @param port        The TCP port to listen on, 0 for any free port
+     * @param index       The dictionary shared by all sessions, or null for the predefined words
+     * @param maxSessions The maximum number of concurrent sessions
+     * @param journal     The journal of the sessions, or null to keep them in memory only
+     * @throws IOException if the port cannot be opened
+     */
+    public HangmanServer(int port, DictionaryIndex index, int maxSessions, GameEventLog journal) throws IOException {
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.index = index;
+        this.journal = journal;
+        this.sessions = new Semaphore(maxSessions);
+    }
+
+    /**
+     * Sets how the computer guess mode of new sessions is paced.
+     * By default the computer waits {@link HangmanController#DEFAULT_COMPUTER_DELAY} between its moves.
+     *
+     * @param pacingPolicy The pacing of the computer's moves
+     */
+    public void setPacingPolicy(PacingPolicy pacingPolicy) {
+        this.pacingPolicy = pacingPolicy;
+    }
+
+    /**
+     * Sets where the random words of all sessions come from, for example a streamed {@link WordPool}.
+     * By default every session draws from the words of the dictionary.
+     *
+     * @param wordProvider The shared provider of random words, or null for the dictionary
+     */
+    public void setWordProvider(WordProvider wordProvider) {
+        this.wordProvider = wordProvider;
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return The local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts clients until the server is closed.
+     * Each client is served on a new virtual thread; clients beyond the session limit are turned away.
+     *
+     * @throws IOException if accepting a connection fails for a reason other than closing the server
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+
+            if (!sessions.tryAcquire()) {
+                reject(socket);
+                continue;
+            }
+            Thread.ofVirtual().name("hangman-session-" + socket.getPort()).start(() -> {
+                try {
+                    runSession(socket);
+                } finally {
+                    sessions.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Plays games with one client until it leaves, stays idle too long or disconnects.
+     *
+     * @param socket The connection to the client
+     */
+    private void runSession(Socket socket) {
+        liveSockets.add(socket);
+        if (serverSocket.isClosed()) {
+            // The server closed before this session was registered
+            liveSockets.remove(socket);
+            closeQuietly(socket);
+            return;
+        }
+        try (socket) {
+            socket.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            Scanner scanner = new Scanner(new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), BUFFER_SIZE));
+            ChannelSink sink = new ChannelSink(Channels.newChannel(socket.getOutputStream()), StandardCharsets.UTF_8);
+
+            HangmanModel model = new HangmanModel();
+            HangmanView view = new HangmanView(sink);
+            HangmanController controller = index != null
+                    ? new HangmanController(model, view, index, scanner)
+                    : new HangmanController(model, view, scanner);
+            controller.setPacingPolicy(pacingPolicy);
+            WordProvider sharedWords = wordProvider;
+            if (sharedWords != null) {
+                controller.setWordProvider(sharedWords);
+            }
+            if (journal == null) {
+                controller.startGame();
+                return;
+            }
+
+            long sessionId = openSession(scanner, view, model);
+            try {
+                controller.startGame();
+                journal.endSession(sessionId);
+            } finally {
+                journal.detach(sessionId);
+            }
+        } catch (NoSuchElementException | IOException | UncheckedIOException e) {
+            // The client disconnected or timed out, the session simply ends
+        } catch (IllegalStateException e) {
+            // The server shut down and closed the journal while the session was still writing to it
+        } finally {
+            liveSockets.remove(socket);
+        }
+    }
+
+    /**
+     * Asks the client for the number of an interrupted session and attaches the model to it, or to a
+     * new session if the session is unknown or played by another client. A session that is not ended
+     * stays in the journal until it expires, so it can be resumed later.
+     *
+     * @param scanner The input of the client
+     * @param view    The view of the session
+     * @param model   The model of the session
+     * @return The id of the attached session
+     */
+    private long openSession(Scanner scanner, HangmanView view, HangmanModel model) {
+        view.promptForSession();
+        String input = scanner.nextLine().trim();
+        if (!input.isEmpty()) {
+            long sessionId = 0;
+            try {
+                sessionId = Long.parseLong(input);
+            } catch (NumberFormatException e) {
+                // Not a session number, handled like an unknown session
+            }
+            if (sessionId > 0 && journal.hasSession(sessionId)) {
+                if (journal.attach(sessionId, model)) {
+                    return sessionId;
+                }
+                view.showSessionInUse();
+            } else {
+                view.showUnknownSession();
+            }
+        }
+        long sessionId = journal.newSessionId();
+        journal.attach(sessionId, model);
+        view.showSessionId(sessionId);
+        return sessionId;
+    }
+
+    /**
+     * Turns a client away because the session limit is reached.
+     *
+     * @param socket The connection to the client
+     */
+    private void reject(Socket socket) {
+        try (socket) {
+            socket.getOutputStream().write((SERVER_FULL + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Nothing to do, the connection is closed either way
+        }
+    }
+
+    /**
+     * Closes a connection, ignoring errors.
+     *
+     * @param socket The connection to close
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing to do, the connection is closed either way
+        }
+    }
+
+    /**
+     * Stops accepting new clients and disconnects the running sessions.
+     * A journaled session keeps its unfinished game and can be resumed after a restart.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : liveSockets) {
+            closeQuietly(socket);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package de.bbq.hangman.server;
+
+import de.bbq.hangman.controller.PacingPolicy;
+import de.bbq.hangman.model.Alphabet;
+import de.bbq.hangman.model.ComputerGuesser;
+import de.bbq.hangman.model.DictionaryIndex;
+import de.bbq.hangman.persistence.GameEventLog;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Plays scripted sessions against a server on a free local port, one per game mode.
+ * A training run of the AppCDS profile uses it, so the archive holds every class a server session
+ * loads: the server and its journal, controller, view and sinks, the computer guesser and the
+ * adversarial mode, and not just the classes of a simulation.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class ServerTraining {
+    /** Number of concurrent sessions the training server admits */
+    private static final int MAX_SESSIONS = 4;
+
+    private ServerTraining() {
+    }
+
+    /**
+     * Starts a journaled server, plays one session per game mode against it and stops it again.
+     * Every session sends its whole script and then closes its input, so it ends like a client that
+     * disconnects, whatever the words drawn.
+     *
+     * @param index The dictionary of the server, or null for the predefined words
+     * @throws IOException if the server or its journal cannot be started
+     */
+    public static void run(DictionaryIndex index) throws IOException {
+        DictionaryIndex words = index != null ? index : ComputerGuesser.defaultIndex();
+        String letters = String.join("\n", Alphabet.LETTERS.split(""));
+        String computerWord = words.word(words.size() / 2);
+
+        Path journalDirectory = Files.createTempDirectory("hangman-training");
+        try {
+            Thread acceptor;
+            try (GameEventLog journal = new GameEventLog(journalDirectory, GameEventLog.DEFAULT_COMMIT_INTERVAL);
+                 HangmanServer server = new HangmanServer(0, index, MAX_SESSIONS, journal)) {
+                server.setPacingPolicy(PacingPolicy.noDelay());
+                acceptor = Thread.ofPlatform().daemon().name("hangman-training").start(() -> {
+                    try {
+                        server.serve();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                play(server.getPort(), "\n1\n" + computerWord + "\nn\n");
+                play(server.getPort(), "\n2\n" + computerWord + "\n" + letters + "\n");
+                play(server.getPort(), "\n3\n" + letters + "\n");
+            }
+            // Closing the server ends serve(), so the acceptor finishes right away
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try (Stream<Path> files = Files.walk(journalDirectory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays one session: sends the script, closes the input of the session and reads its output to the end.
+     *
+     * @param port   The port of the server
+     * @param script The lines the client sends
+     * @throws IOException if the connection fails
+     */
+    private static void play(int port, String script) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.getOutputStream().write(script.getBytes(StandardCharsets.UTF_8));
+            socket.shutdownOutput();
+            socket.getInputStream().transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
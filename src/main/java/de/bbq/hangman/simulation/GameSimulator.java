@@ -0,0 +1,57 @@
+package de.bbq.hangman.simulation;
+
+import de.bbq.hangman.model.GuessStrategy;
+import de.bbq.hangman.model.HangmanModel;
+
+/**
+ * Plays single games of a computer guess strategy against the model without any user interface.
+ * Follows the same turn order as the computer mode of the controller, but never waits between guesses.
+ * An instance reuses its model and guesser and is therefore not thread-safe.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class GameSimulator {
+    private final HangmanModel model;
+    private final GuessStrategy guesser;
+
+    /**
+     * Constructs a GameSimulator for the given guesser.
+     *
+     * @param guesser The computer guess strategy to play with
+     */
+    public GameSimulator(GuessStrategy guesser) {
+        this.model = new HangmanModel();
+        this.guesser = guesser;
+    }
+
+    /**
+     * Plays one game and records its outcome.
+     *
+     * @param word  The word the guesser has to find
+     * @param stats The statistics to record the game in
+     */
+    public void play(String word, SimulationStats stats) {
+        guesser.initializeGuesser();
+        model.initializeGame(word);
+        guesser.updatePossibleWords(model.getDisplay(), model.getGuessedLetters());
+
+        int guesses = 0;
+        while (!model.isGameOver() && !model.isGameWon() && guesser.hasMoreLetters()) {
+            char guess = guesser.getNextLetterGuess();
+            if (model.hasBeenGuessed(guess)) {
+                continue;
+            }
+            guesses++;
+            model.guessLetter(guess);
+            guesser.updatePossibleWords(model.getDisplay(), model.getGuessedLetters());
+        }
+
+        if (!model.isGameWon() && !model.isGameOver() && guesser.hasMoreLetters()) {
+            guesses++;
+            model.guessWord(guesser.getWordGuess(model.getCurrentDisplay()));
+        }
+
+        stats.record(word.length(), model.isGameWon(), guesses, HangmanModel.INITIAL_LIVES - model.getRemainingLives());
+    }
+}
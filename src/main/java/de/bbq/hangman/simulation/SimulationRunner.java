@@ -0,0 +1,119 @@
+package de.bbq.hangman.simulation;
+
+import de.bbq.hangman.model.ComputerGuesser;
+import de.bbq.hangman.model.DictionaryIndex;
+import de.bbq.hangman.model.WordProvider;
+
+import java.io.PrintStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs large batches of computer guesser games on all cores.
+ * The batch is split into chunks on a fork-join pool; every chunk plays its games on its own
+ * model and guesser and returns its own statistics, which are merged afterwards. The word provider
+ * of the dictionary is shared, and each guesser gives its game state back for the next chunk.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class SimulationRunner {
+    /** Number of games below which a chunk is played sequentially */
+    private static final int CHUNK_SIZE = 1024;
+
+    private final DictionaryIndex index;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a SimulationRunner that draws words from the given dictionary.
+     *
+     * @param index The dictionary for the words to guess and the guesser
+     */
+    public SimulationRunner(DictionaryIndex index) {
+        this(index, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a SimulationRunner that runs on the given pool.
+     *
+     * @param index The dictionary for the words to guess and the guesser
+     * @param pool  The pool to play the games on
+     */
+    public SimulationRunner(DictionaryIndex index, ForkJoinPool pool) {
+        this.index = index;
+        this.pool = pool;
+    }
+
+    /**
+     * Plays the given number of games with randomly chosen words.
+     *
+     * @param games The number of games to play
+     * @return The merged statistics of all games
+     */
+    public SimulationStats run(long games) {
+        return pool.invoke(new GameBatch(0, games));
+    }
+
+    /**
+     * Plays a batch of games and prints a report of the results.
+     *
+     * @param games The number of games to play
+     * @param out   The stream to print the report to
+     */
+    public void runAndReport(long games, PrintStream out) {
+        long start = System.nanoTime();
+        SimulationStats stats = run(games);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        out.printf("Spiele: %d in %.2f s (%.0f Spiele/s)%n", stats.getGames(), seconds, stats.getGames() / seconds);
+        out.printf("Gewinnrate: %.2f %%%n", stats.getWinRate() * 100);
+        out.printf("Durchschnittliche Versuche: %.2f%n", stats.getAverageGuesses());
+        out.printf("Durchschnittliche Fehler: %.2f%n", stats.getAverageMisses());
+        out.println("Fehler nach Wortlänge:");
+        for (int length = 1; length <= stats.getMaxWordLength(); length++) {
+            if (stats.getGames(length) > 0) {
+                out.printf("  %2d: %.2f (%d Spiele)%n", length, stats.getAverageMisses(length), stats.getGames(length));
+            }
+        }
+    }
+
+    /**
+     * Fork-join task playing the games with numbers in the range [from, to).
+     */
+    private class GameBatch extends RecursiveTask<SimulationStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        GameBatch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return playChunk();
+            }
+            long middle = (from + to) >>> 1;
+            GameBatch left = new GameBatch(from, middle);
+            left.fork();
+            SimulationStats stats = new GameBatch(middle, to).compute();
+            stats.merge(left.join());
+            return stats;
+        }
+
+        private SimulationStats playChunk() {
+            SimulationStats stats = new SimulationStats();
+            WordProvider wordProvider = WordProvider.of(index);
+            ComputerGuesser guesser = new ComputerGuesser(index);
+            GameSimulator simulator = new GameSimulator(guesser);
+            for (long game = from; game < to; game++) {
+                simulator.play(wordProvider.getRandomWord(), stats);
+            }
+            guesser.release();
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package de.bbq.hangman.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated outcome of simulated games.
+ * Each worker records into its own instance, which are merged once at the end,
+ * so recording needs no synchronization.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class SimulationStats {
+    /** Quantile of the standard normal distribution for 95 % confidence intervals */
+    private static final double Z_95 = 1.959964;
+
+    private long games;
+    private long wins;
+    private long guesses;
+    private long misses;
+    private long missSquares;
+    private long cpuNanos;
+    private long[] gamesByLength = new long[32];
+    private long[] missesByLength = new long[32];
+
+    /**
+     * Records the outcome of one game.
+     *
+     * @param wordLength The length of the word
+     * @param won        true if the guesser found the word
+     * @param guesses    The number of letter and word guesses made
+     * @param misses     The number of lives lost
+     */
+    public void record(int wordLength, boolean won, int guesses, int misses) {
+        if (wordLength >= gamesByLength.length) {
+            int size = Math.max(wordLength + 1, gamesByLength.length * 2);
+            gamesByLength = Arrays.copyOf(gamesByLength, size);
+            missesByLength = Arrays.copyOf(missesByLength, size);
+        }
+        this.games++;
+        if (won) {
+            this.wins++;
+        }
+        this.guesses += guesses;
+        this.misses += misses;
+        this.missSquares += (long) misses * misses;
+        gamesByLength[wordLength]++;
+        missesByLength[wordLength] += misses;
+    }
+
+    /**
+     * Records CPU time spent playing games.
+     *
+     * @param nanos The CPU time in nanoseconds
+     */
+    public void recordCpuTime(long nanos) {
+        this.cpuNanos += nanos;
+    }
+
+    /**
+     * Adds the games recorded in another instance to this one.
+     *
+     * @param other The statistics to add
+     */
+    public void merge(SimulationStats other) {
+        if (other.gamesByLength.length > gamesByLength.length) {
+            gamesByLength = Arrays.copyOf(gamesByLength, other.gamesByLength.length);
+            missesByLength = Arrays.copyOf(missesByLength, other.missesByLength.length);
+        }
+        games += other.games;
+        wins += other.wins;
+        guesses += other.guesses;
+        misses += other.misses;
+        missSquares += other.missSquares;
+        cpuNanos += other.cpuNanos;
+        for (int length = 0; length < other.gamesByLength.length; length++) {
+            gamesByLength[length] += other.gamesByLength[length];
+            missesByLength[length] += other.missesByLength[length];
+        }
+    }
+
+    /**
+     * Gets the number of recorded games.
+     *
+     * @return The number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the share of games the guesser won.
+     *
+     * @return The win rate between 0 and 1
+     */
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /**
+     * Gets the 95 % confidence interval of the win rate (Wilson score interval).
+     *
+     * @return The lower and the upper bound, both between 0 and 1
+     */
+    public double[] getWinRateInterval() {
+        if (games == 0) {
+            return new double[] {0, 1};
+        }
+        double rate = getWinRate();
+        double z2 = Z_95 * Z_95;
+        double center = (rate + z2 / (2 * games)) / (1 + z2 / games);
+        double margin = Z_95 / (1 + z2 / games) * Math.sqrt(rate * (1 - rate) / games + z2 / (4.0 * games * games));
+        return new double[] {Math.max(0, center - margin), Math.min(1, center + margin)};
+    }
+
+    /**
+     * Gets the average number of guesses per game.
+     *
+     * @return The average number of guesses
+     */
+    public double getAverageGuesses() {
+        return games == 0 ? 0 : (double) guesses / games;
+    }
+
+    /**
+     * Gets the average number of lives lost per game.
+     *
+     * @return The average number of misses
+     */
+    public double getAverageMisses() {
+        return games == 0 ? 0 : (double) misses / games;
+    }
+
+    /**
+     * Gets the half width of the 95 % confidence interval of the average number of misses.
+     *
+     * @return The margin around {@link #getAverageMisses()}
+     */
+    public double getAverageMissesMargin() {
+        if (games < 2) {
+            return 0;
+        }
+        double mean = getAverageMisses();
+        double variance = Math.max(0, ((double) missSquares - games * mean * mean) / (games - 1));
+        return Z_95 * Math.sqrt(variance / games);
+    }
+
+    /**
+     * Gets the average CPU time per guess, as recorded with {@link #recordCpuTime(long)}.
+     *
+     * @return The CPU time per guess in nanoseconds
+     */
+    public double getCpuNanosPerGuess() {
+        return guesses == 0 ? 0 : (double) cpuNanos / guesses;
+    }
+
+    /**
+     * Gets the number of games played with words of the given length.
+     *
+     * @param wordLength The word length
+     * @return The number of games
+     */
+    public long getGames(int wordLength) {
+        return wordLength < gamesByLength.length ? gamesByLength[wordLength] : 0;
+    }
+
+    /**
+     * Gets the average number of lives lost for words of the given length.
+     *
+     * @param wordLength The word length
+     * @return The average number of misses, 0 if no game had this length
+     */
+    public double getAverageMisses(int wordLength) {
+        long count = getGames(wordLength);
+        return count == 0 ? 0 : (double) missesByLength[wordLength] / count;
+    }
+
+    /**
+     * Gets the length of the longest word that was played.
+     *
+     * @return The maximum word length, 0 if no game was recorded
+     */
+    public int getMaxWordLength() {
+        for (int length = gamesByLength.length - 1; length > 0; length--) {
+            if (gamesByLength[length] > 0) {
+                return length;
+            }
+        }
+        return 0;
+    }
+}
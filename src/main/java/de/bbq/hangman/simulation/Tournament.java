@@ -0,0 +1,180 @@
+package de.bbq.hangman.simulation;
+
+import de.bbq.hangman.model.DictionaryIndex;
+import de.bbq.hangman.model.GuessStrategy;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Lets several guess strategies play the same games and compares them on quality and cost.
+ * The word of every game is derived from a seed and the game number, so all strategies, and repeated
+ * runs with the same seed, see exactly the same words. The games are split into chunks on a fork-join
+ * pool; every chunk plays its words with each strategy in turn on fresh instances and measures the CPU
+ * time of each strategy's games on its own thread.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class Tournament {
+    /** Seed used when none is given */
+    public static final long DEFAULT_SEED = 42;
+
+    /** Number of games below which a chunk is played sequentially */
+    private static final int CHUNK_SIZE = 1024;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final DictionaryIndex index;
+    private final ForkJoinPool pool;
+    private final List<String> names = new ArrayList<>();
+    private final List<Supplier<? extends GuessStrategy>> strategies = new ArrayList<>();
+
+    /**
+     * Constructs a Tournament on the words of the given dictionary that runs on the common pool.
+     *
+     * @param index The dictionary for the words to guess
+     */
+    public Tournament(DictionaryIndex index) {
+        this(index, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a Tournament on the words of the given dictionary.
+     *
+     * @param index The dictionary for the words to guess
+     * @param pool  The pool to play the games on
+     */
+    public Tournament(DictionaryIndex index, ForkJoinPool pool) {
+        this.index = index;
+        this.pool = pool;
+    }
+
+    /**
+     * Adds a strategy to the tournament.
+     *
+     * @param name     The name of the strategy in the report
+     * @param strategy Creates a new instance of the strategy; called once per chunk and thread
+     */
+    public void addStrategy(String name, Supplier<? extends GuessStrategy> strategy) {
+        names.add(name);
+        strategies.add(strategy);
+    }
+
+    /**
+     * Plays the given number of games with every strategy.
+     *
+     * @param games The number of games per strategy
+     * @param seed  The seed the words are derived from
+     * @return The statistics per strategy name, in the order the strategies were added
+     */
+    public Map<String, SimulationStats> run(long games, long seed) {
+        SimulationStats[] stats = pool.invoke(new Round(seed, 0, games));
+        Map<String, SimulationStats> results = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            results.put(names.get(i), stats[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Plays the games and prints a comparison of the strategies.
+     *
+     * @param games The number of games per strategy
+     * @param seed  The seed the words are derived from
+     * @param out   The stream to print the report to
+     */
+    public void runAndReport(long games, long seed, PrintStream out) {
+        long start = System.nanoTime();
+        Map<String, SimulationStats> results = run(games, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        out.printf("Turnier: %d Spiele je Strategie in %.2f s (Seed %d)%n", games, seconds, seed);
+        out.printf("%-16s %-28s %-16s %10s%n", "Strategie", "Gewinnrate (95 %-KI)", "Fehler (95 %-KI)", "CPU/Zug");
+        for (Map.Entry<String, SimulationStats> result : results.entrySet()) {
+            SimulationStats stats = result.getValue();
+            double[] interval = stats.getWinRateInterval();
+            String winRate = String.format("%6.2f %% [%6.2f, %6.2f]",
+                    stats.getWinRate() * 100, interval[0] * 100, interval[1] * 100);
+            String misses = String.format("%5.2f ± %.2f", stats.getAverageMisses(), stats.getAverageMissesMargin());
+            out.printf("%-16s %-28s %-16s %7.2f µs%n",
+                    result.getKey(), winRate, misses, stats.getCpuNanosPerGuess() / 1000);
+        }
+    }
+
+    /**
+     * Derives the word of a game from the seed and the game number.
+     */
+    private String word(long seed, long game) {
+        return index.word(new SplittableRandom(seed ^ (game * 0x9E3779B97F4A7C15L)).nextInt(index.size()));
+    }
+
+    /**
+     * Fork-join task playing the games with numbers in the range [from, to) with every strategy.
+     */
+    private class Round extends RecursiveTask<SimulationStats[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final long from;
+        private final long to;
+
+        Round(long seed, long from, long to) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationStats[] compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return playChunk();
+            }
+            long middle = (from + to) >>> 1;
+            Round left = new Round(seed, from, middle);
+            left.fork();
+            SimulationStats[] stats = new Round(seed, middle, to).compute();
+            SimulationStats[] leftStats = left.join();
+            for (int i = 0; i < stats.length; i++) {
+                stats[i].merge(leftStats[i]);
+            }
+            return stats;
+        }
+
+        private SimulationStats[] playChunk() {
+            String[] words = new String[(int) (to - from)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = word(seed, from + i);
+            }
+            SimulationStats[] stats = new SimulationStats[strategies.size()];
+            for (int i = 0; i < stats.length; i++) {
+                stats[i] = new SimulationStats();
+                GuessStrategy strategy = strategies.get(i).get();
+                GameSimulator simulator = new GameSimulator(strategy);
+                long start = cpuTime();
+                for (String word : words) {
+                    simulator.play(word, stats[i]);
+                }
+                stats[i].recordCpuTime(cpuTime() - start);
+                strategy.release();
+            }
+            return stats;
+        }
+
+        /**
+         * Gets the CPU time of the current thread, or the wall-clock time if the JVM cannot measure it.
+         */
+        private long cpuTime() {
+            return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package de.bbq.hangman.view;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Output sink writing encoded text to a byte channel, for example a network connection.
+ * Keeps no buffer of its own between batches.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class ChannelSink implements OutputSink {
+    private final WritableByteChannel channel;
+    private final Charset charset;
+
+    /**
+     * Constructs a ChannelSink for the given channel.
+     *
+     * @param channel The channel to write to
+     * @param charset The encoding of the text
+     */
+    public ChannelSink(WritableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.charset = charset;
+    }
+
+    @Override
+    public void write(CharSequence text) {
+        ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(charset));
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
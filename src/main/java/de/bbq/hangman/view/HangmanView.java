@@ -38,74 +38,141 @@ public class HangmanView {
         Wähle den Spielmodus:
         1) Computer rät Modus
         2) Zufälliges Wort verwenden
-        Bitte gib 1 oder 2 ein:""";
-    private static final String INVALID_MODE = "Ungültige Eingabe! Bitte wähle 1 oder 2.";
+        3) Böser Modus (der Computer legt sich nicht auf ein Wort fest)
+        Bitte gib 1, 2 oder 3 ein:""";
+    private static final String INVALID_MODE = "Ungültige Eingabe! Bitte wähle 1, 2 oder 3.";
     private static final String COMPUTER_STARTS = "Der Computer versucht jetzt, dein Wort zu erraten...";
     private static final String COMPUTER_GUESS = "Computer rät: ";
     private static final String COMPUTER_WORD_GUESS = "Computer rät das Wort: ";
     private static final String COMPUTER_WON = "Der Computer hat dein Wort erraten! Computer gewinnt!";
+    private static final String ADVERSARIAL_UNAVAILABLE = "Der böse Modus ist mit diesem Wörterbuch nicht möglich. Bitte wähle 1 oder 2.";
+    private static final String UNKNOWN_WORD = "Dieses Wort steht nicht im Wörterbuch. Du verlierst kein Leben.";
+    private static final String GAME_RESUMED = "Dein unterbrochenes Spiel wird fortgesetzt.";
+    private static final String SESSION_ID = "Deine Sitzungsnummer: ";
+    private static final String ENTER_SESSION = "Gib deine Sitzungsnummer ein, um ein unterbrochenes Spiel fortzusetzen, oder drücke Enter:";
+    private static final String UNKNOWN_SESSION = "Diese Sitzung gibt es nicht. Es wird eine neue Sitzung gestartet.";
+    private static final String SESSION_IN_USE = "Diese Sitzung wird gerade gespielt. Es wird eine neue Sitzung gestartet.";
+
+    /** Destination of all output */
+    private final OutputSink sink;
+
+    /** Output of the current turn that has not been written yet */
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    /** true if the sink discards everything, so no output needs to be formatted */
+    private final boolean discard;
+
+    /**
+     * Constructs a HangmanView that writes to the console.
+     */
+    public HangmanView() {
+        this(WriterSink.console());
+    }
+
+    /**
+     * Constructs a HangmanView that writes to the given sink, for example a network connection
+     * or {@link NoOpSink#INSTANCE} for headless runs.
+     *
+     * @param sink The sink to write to
+     */
+    public HangmanView(OutputSink sink) {
+        this.sink = sink;
+        this.discard = sink == NoOpSink.INSTANCE;
+    }
+
+    /**
+     * Writes all output collected since the last flush to the sink in one batch.
+     * Prompts flush automatically, because user input follows them.
+     */
+    public void flush() {
+        if (buffer.length() > 0) {
+            sink.write(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Appends a line to the output of the current turn.
+     *
+     * @param text The text of the line
+     */
+    private void line(String text) {
+        if (!discard) {
+            buffer.append(text).append('\n');
+        }
+    }
+
+    /**
+     * Appends a prompt line and flushes the output, because user input follows.
+     *
+     * @param text The text of the prompt
+     */
+    private void prompt(String text) {
+        line(text);
+        flush();
+    }
 
     /**
      * Displays the mode selection prompt.
      */
     public void promptForMode() {
-        System.out.println(CHOOSE_MODE);
+        prompt(CHOOSE_MODE);
     }
 
     /**
      * Displays a message for invalid mode selection.
      */
     public void showInvalidMode() {
-        System.out.println(INVALID_MODE);
+        line(INVALID_MODE);
     }
 
     /**
      * Displays the welcome message to the player.
      */
     public void showWelcome() {
-        System.out.println(WELCOME);
+        line(WELCOME);
     }
 
     /**
      * Prompts the player to enter the word to guess.
      */
     public void promptForWord() {
-        System.out.println(ENTER_WORD);
+        prompt(ENTER_WORD);
     }
 
     /**
      * Prompts the player to guess a letter or the complete word.
      */
     public void promptForGuess() {
-        System.out.println(ENTER_LETTER);
+        prompt(ENTER_LETTER);
     }
 
     /**
      * Display a message for a correct guess
      */
     public void showCorrectGuess() {
-        System.out.println(CORRECT);
+        line(CORRECT);
     }
 
     /**
      * Display a message for a wrong guess
      */
     public void showWrongGuess() {
-        System.out.println(WRONG);
+        line(WRONG);
     }
 
     /**
      * Displays a message when a letter has already been guessed.
      */
     public void showAlreadyGuessed() {
-        System.out.println(ALREADY_GUESSED);
+        line(ALREADY_GUESSED);
     }
 
     /**
      * Displays a winning message when the game is won
      */
     public void showGameWon() {
-        System.out.println(WON);
+        line(WON);
     }
 
     /**
@@ -114,30 +181,43 @@ public class HangmanView {
      * @param word The word that was to be guessed
      */
     public void showGameLost(String word) {
-        System.out.println(GAME_OVER_GALLOWS);
-        System.out.println(LOST + word);
+        line(GAME_OVER_GALLOWS);
+        if (!discard) {
+            buffer.append(LOST).append(word).append('\n');
+        }
     }
 
     /**
      * Prompts the player to play again.
      */
     public void promptPlayAgain() {
-        System.out.println(PLAY_AGAIN);
+        prompt(PLAY_AGAIN);
     }
 
     /**
      * Displays the current game state including the gallows, word progress, and game statistics.
+     * The whole state is written as part of the current turn's batch.
      *
      * @param currentWord The current state of the word with revealed letters
      * @param lives The number of remaining lives
      * @param guessedLetters List of already guessed letters
      */
     public void showGameState(String currentWord, int lives, List<Character> guessedLetters) {
-        System.out.println("\n");
+        if (discard) {
+            return;
+        }
+        buffer.append("\n\n");
         showGallows(lives);
-        System.out.println("\nAktuelles Wort: " + currentWord);
-        System.out.println("Verbleibende Leben: " + lives);
-        System.out.println("Bereits geraten: " + guessedLetters);
+        buffer.append("\nAktuelles Wort: ").append(currentWord).append('\n');
+        buffer.append("Verbleibende Leben: ").append(lives).append('\n');
+        buffer.append("Bereits geraten: [");
+        for (int i = 0; i < guessedLetters.size(); i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(guessedLetters.get(i).charValue());
+        }
+        buffer.append("]\n");
     }
 
     /**
@@ -146,14 +226,14 @@ public class HangmanView {
     public void showGallows(int remainingLives) {
         int index = 10 - remainingLives;
         index = Math.min(Math.max(index, 0), GALLOWS_STATES.length - 1);
-        System.out.println(GALLOWS_STATES[index]);
+        line(GALLOWS_STATES[index]);
     }
 
     /**
      * Shows that the computer starts guessing.
      */
     public void showComputerStartsGuessing() {
-        System.out.println(COMPUTER_STARTS);
+        line(COMPUTER_STARTS);
     }
 
     /**
@@ -162,7 +242,9 @@ public class HangmanView {
      * @param letter The letter the computer is guessing
      */
     public void showComputerLetterGuess(char letter) {
-        System.out.println(COMPUTER_GUESS + letter);
+        if (!discard) {
+            buffer.append(COMPUTER_GUESS).append(letter).append('\n');
+        }
     }
 
     /**
@@ -171,14 +253,68 @@ public class HangmanView {
      * @param word The word the computer is guessing
      */
     public void showComputerWordGuess(String word) {
-        System.out.println(COMPUTER_WORD_GUESS + word);
+        if (!discard) {
+            buffer.append(COMPUTER_WORD_GUESS).append(word).append('\n');
+        }
     }
 
     /**
      * Shows that the computer won the game.
      */
     public void showComputerWon() {
-        System.out.println(COMPUTER_WON);
+        line(COMPUTER_WON);
+    }
+
+    /**
+     * Shows that the dictionary has no words the adversarial mode can play with.
+     */
+    public void showAdversarialModeUnavailable() {
+        line(ADVERSARIAL_UNAVAILABLE);
+    }
+
+    /**
+     * Shows that a guessed word is not in the dictionary.
+     */
+    public void showUnknownWord() {
+        line(UNKNOWN_WORD);
+    }
+
+    /**
+     * Shows that an interrupted game is continued.
+     */
+    public void showGameResumed() {
+        line(GAME_RESUMED);
+    }
+
+    /**
+     * Asks for the number of a session to resume.
+     */
+    public void promptForSession() {
+        prompt(ENTER_SESSION);
+    }
+
+    /**
+     * Shows that the requested session does not exist.
+     */
+    public void showUnknownSession() {
+        line(UNKNOWN_SESSION);
+    }
+
+    /**
+     * Shows that the requested session is played by another client.
+     */
+    public void showSessionInUse() {
+        line(SESSION_IN_USE);
     }
-}
 
+    /**
+     * Shows the number under which the current session can be resumed.
+     *
+     * @param sessionId The session number
+     */
+    public void showSessionId(long sessionId) {
+        if (!discard) {
+            buffer.append(SESSION_ID).append(sessionId).append('\n');
+        }
+    }
+}
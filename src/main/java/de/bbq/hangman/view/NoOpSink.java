@@ -0,0 +1,20 @@
+package de.bbq.hangman.view;
+
+/**
+ * Output sink that discards all text, for headless runs of the controller.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public final class NoOpSink implements OutputSink {
+    /** The shared instance */
+    public static final NoOpSink INSTANCE = new NoOpSink();
+
+    private NoOpSink() {
+    }
+
+    @Override
+    public void write(CharSequence text) {
+        // Discard the text
+    }
+}
@@ -0,0 +1,20 @@
+package de.bbq.hangman.view;
+
+/**
+ * Destination for the text produced by the {@link HangmanView}.
+ * The view collects the output of a whole turn and hands it to the sink in a single call,
+ * so a sink performs one write per turn instead of one per line.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public interface OutputSink {
+
+    /**
+     * Writes a batch of text and makes it visible to the reader.
+     *
+     * @param text The text to write
+     * @throws java.io.UncheckedIOException if the text cannot be written
+     */
+    void write(CharSequence text);
+}
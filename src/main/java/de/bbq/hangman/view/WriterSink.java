@@ -0,0 +1,45 @@
+package de.bbq.hangman.view;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Output sink writing to a {@link Writer}, for example the console.
+ * Every batch is written and flushed at once.
+ *
+ * @author Christos Poulios
+ * @version 1.0
+ */
+public class WriterSink implements OutputSink {
+    private final Writer writer;
+
+    /**
+     * Constructs a WriterSink for the given writer.
+     *
+     * @param writer The writer to write to
+     */
+    public WriterSink(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Creates a sink writing to the console in the console's encoding.
+     *
+     * @return A sink for {@link System#out}
+     */
+    public static WriterSink console() {
+        return new WriterSink(new OutputStreamWriter(System.out, System.out.charset()));
+    }
+
+    @Override
+    public void write(CharSequence text) {
+        try {
+            writer.append(text);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}